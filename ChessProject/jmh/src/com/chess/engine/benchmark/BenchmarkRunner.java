@@ -0,0 +1,31 @@
+package com.chess.engine.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the engine benchmarks with the GC profiler on, so every result comes with
+ * allocation rate and bytes allocated per operation (gc.alloc.rate.norm) next to the throughput
+ *
+ * The benchmark sources live in their own source root (jmh/src) next to the engine sources (src),
+ * the jmh profile of pom.xml compiles both with the JMH annotation processor and runs this class:
+ *     mvn -Pjmh package exec:exec [-Djmh.include=regexp of benchmarks to run]
+ * JMH: https://github.com/openjdk/jmh
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
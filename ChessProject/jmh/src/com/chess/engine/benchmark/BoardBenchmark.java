@@ -0,0 +1,85 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of building boards and playing moves on them
+ * Every benchmark works through all moves of the position, so one operation = one pass over the legal moves
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private Board board;
+    private List<Piece> pieces;
+    private List<Move> legalMoves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.pieces = new ArrayList<>(this.board.getWhitePieces());
+        this.pieces.addAll(this.board.getBlackPieces());
+        this.legalMoves = new ArrayList<>(this.board.getCurrentPlayer().getLegalMoves());
+    }
+
+    @Benchmark
+    public Board builderBuild() {
+        final Board.Builder builder = new Board.Builder();
+        for (final Piece piece : this.pieces) {
+            builder.setPiece(piece);
+        }
+        builder.setMoveMaker(this.board.getCurrentPlayer().getAlliance());
+        return builder.build();
+    }
+
+    /**
+     * Execute alone leaves the lazy move lists of the new board untouched,
+     * asking the new current player for its moves adds what a search pays per node
+     */
+    @Benchmark
+    public void moveExecute(final Blackhole blackhole) {
+        for (final Move move : this.legalMoves) {
+            final Board executed = move.execute();
+            blackhole.consume(executed.getCurrentPlayer().getLegalMoves());
+        }
+    }
+
+    @Benchmark
+    public void playerMakeMove(final Blackhole blackhole) {
+        for (final Move move : this.legalMoves) {
+            final MoveTransition transition = this.board.getCurrentPlayer().makeMove(move);
+            blackhole.consume(transition.getMoveStatus());
+        }
+    }
+
+    /**
+     * Fresh board each time so the lazily calculated player state is not reused between calls
+     */
+    @Benchmark
+    public boolean playerIsCheckMate() {
+        return builderBuild().getCurrentPlayer().isCheckMate();
+    }
+
+    @Benchmark
+    public void moveFactoryCreateMove(final Blackhole blackhole) {
+        for (final Move move : this.legalMoves) {
+            blackhole.consume(Move.MoveFactory.createMove(this.board, move.getCurrentCoordinate(), move.getDestinationCoordinate()));
+        }
+    }
+}
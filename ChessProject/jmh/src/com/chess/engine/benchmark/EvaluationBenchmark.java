@@ -0,0 +1,66 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.nnue.Accumulator;
+import com.chess.engine.nnue.Network;
+import com.chess.engine.search.NnueEvaluator;
+import com.chess.engine.search.TaperedEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handcrafted evaluation against the NNUE evaluation, with the accumulator moved over from the position evaluated
+ * before (alternating between the position and one of its children, like a search does) and calculated from scratch,
+ * one operation = one evaluation
+ * The network is random, a trained one of the same hidden size costs the same
+ * Needs --add-modules jdk.incubator.vector in the forked JVM for the SIMD loops, without it the plain loops run
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EvaluationBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"256"})
+    public int hiddenSize;
+
+    private Board board;
+    private Board child;
+    private boolean isChildNext;
+    private Network network;
+    private TaperedEvaluator taperedEvaluator;
+    private NnueEvaluator nnueEvaluator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.network = Network.random(this.hiddenSize, 1L);
+        this.taperedEvaluator = new TaperedEvaluator();
+        this.nnueEvaluator = new NnueEvaluator(this.network);
+        this.child = this.board.getCurrentPlayer().makeLegalMove(this.board.getCurrentPlayer().getLegalMoves().iterator().next())
+                .getToBoard();
+    }
+
+    @Benchmark
+    public int handcrafted() {
+        return this.taperedEvaluator.evaluate(this.board);
+    }
+
+    @Benchmark
+    public int nnueIncremental() {
+        this.isChildNext = !this.isChildNext;
+        return this.nnueEvaluator.evaluate(this.isChildNext ? this.child : this.board);
+    }
+
+    @Benchmark
+    public int nnueFromScratch() {
+        return this.network.evaluate(new Accumulator(this.network, this.board.getBitBoard()),
+                this.board.getCurrentPlayer().getAlliance());
+    }
+}
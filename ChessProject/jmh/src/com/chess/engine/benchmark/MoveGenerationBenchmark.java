@@ -0,0 +1,71 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.LegalMoveGenerator;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal moves of the side to move as Move objects against encoded moves in a reused MoveList
+ * One operation = all legal moves of the position, generated from scratch
+ * Run with the gc profiler to compare the bytes allocated per operation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    private Board board;
+    private Alliance alliance;
+    private List<Piece> pieces;
+    private MoveList moveList;
+    private LegalMoveGenerator legalMoveGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.alliance = this.board.getCurrentPlayer().getAlliance();
+        this.pieces = new ArrayList<>(this.board.getCurrentPlayer().getActivePieces());
+        this.moveList = new MoveList();
+        this.legalMoveGenerator = new LegalMoveGenerator();
+    }
+
+    @Benchmark
+    public List<Move> moveObjects() {
+        final List<Move> standardMoves = new ArrayList<>();
+        for (final Piece piece : this.pieces) {
+            standardMoves.addAll(piece.calculateLegalMove(this.board));
+        }
+        return new LegalMoveGenerator(this.board, this.alliance).calculateLegalMoves(standardMoves);
+    }
+
+    @Benchmark
+    public int encodedMoves() {
+        new LegalMoveGenerator(this.board, this.alliance).generateLegalMoves(this.moveList);
+        return this.moveList.size();
+    }
+
+    /**
+     * Generator kept and set again, like MutableBoard does: nothing at all is allocated per operation
+     */
+    @Benchmark
+    public int reusedGenerator() {
+        this.legalMoveGenerator.setPosition(this.board.getBitBoard(), this.alliance, this.board.getCastlingRights(),
+                this.board.getEnPassantPawn() == null ? -1 : this.board.getEnPassantPawn().getPiecePosition())
+                .generateLegalMoves(this.moveList);
+        return this.moveList.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.chess.engine.benchmark;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each Piece.calculateLegalMove implementation
+ * One operation = legal moves of every piece of the given type, both alliances, on the position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPositions position;
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    public Piece.PieceType pieceType;
+
+    private Board board;
+    private List<Piece> pieces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.pieces = new ArrayList<>();
+        for (final Piece piece : this.board.getWhitePieces()) {
+            if (piece.getPieceType() == this.pieceType) {
+                this.pieces.add(piece);
+            }
+        }
+        for (final Piece piece : this.board.getBlackPieces()) {
+            if (piece.getPieceType() == this.pieceType) {
+                this.pieces.add(piece);
+            }
+        }
+    }
+
+    @Benchmark
+    public void calculateLegalMove(final Blackhole blackhole) {
+        for (final Piece piece : this.pieces) {
+            blackhole.consume(piece.calculateLegalMove(this.board));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.chess.engine.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Kernels loops on the preferred vector size of the CPU (AVX2, AVX-512, NEON ...)
+ * Lives in its own source root (simd/src) because it needs --add-modules jdk.incubator.vector to compile,
+ * src compiles without it. Kernels creates it by name when the module and the class are present
+ * The dot product widens shorts to ints, a clipped value times a weight can overflow a short
+ */
+final class VectorKernels implements Kernels.Loops {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final int PARTS = SHORTS.length() / INTS.length();   // Int vectors one short vector widens to
+    private static final short QA = Network.QA;
+
+    @Override
+    public void add(final short[] values,
+                    final short[] weights,
+                    final int offset) {
+        for (int i = 0; i < values.length; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(values, i);
+        }
+    }
+
+    @Override
+    public void subtract(final short[] values,
+                         final short[] weights,
+                         final int offset) {
+        for (int i = 0; i < values.length; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(values, i);
+        }
+    }
+
+    @Override
+    public int clippedReluDot(final short[] values,
+                              final short[] weights,
+                              final int offset) {
+        IntVector sum = IntVector.zero(INTS);
+        for (int i = 0; i < values.length; i += SHORTS.length()) {
+            final ShortVector clipped = ShortVector.fromArray(SHORTS, values, i).max((short) 0).min(QA);
+            final ShortVector weight = ShortVector.fromArray(SHORTS, weights, offset + i);
+            for (int part = 0; part < PARTS; part++) {
+                final IntVector wideClipped = (IntVector) clipped.convertShape(VectorOperators.S2I, INTS, part);
+                final IntVector wideWeight = (IntVector) weight.convertShape(VectorOperators.S2I, INTS, part);
+                sum = sum.add(wideClipped.mul(wideWeight));
+            }
+        }
+        return sum.reduceLanes(VectorOperators.ADD);
+    }
+
+    @Override
+    public String describe() {
+        return "Vector API, " + SHORTS.vectorBitSize() + " bit vectors of " + SHORTS.length() + " shorts";
+    }
+}
@@ -26,6 +26,11 @@ public enum Alliance {
             return false;
         }
 
+        @Override
+        public Alliance opposite() {
+            return BLACK;
+        }
+
         public Player choosePlayer(final WhitePlayer whitePlayer,
                                    final BlackPlayer blackPlayer) {
             return whitePlayer;
@@ -53,6 +58,11 @@ public enum Alliance {
             return true;
         }
 
+        @Override
+        public Alliance opposite() {
+            return WHITE;
+        }
+
         @Override
         public Player choosePlayer(final WhitePlayer whitePlayer,
                                    final BlackPlayer blackPlayer) {
@@ -72,6 +82,7 @@ public enum Alliance {
     public abstract int getDirection();
     public abstract boolean isWhite();
     public abstract boolean isBlack();
+    public abstract Alliance opposite();
 
     public abstract Player choosePlayer(WhitePlayer whitePlayer, BlackPlayer blackPlayer);
     public abstract boolean isPromotionTile(int coordinate);
@@ -0,0 +1,222 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard core of a position
+ * One 64 bit mask per alliance and piece type, plus occupancy masks for each alliance and for the whole board
+ * Bit i of every mask stands for tile coordinate i, same numbering as the rest of the board package (0 = a8, 63 = h1)
+ * Material + piece square score and game phase (PieceSquareTables) are kept up to date as pieces are set and removed,
+ * so a move or make/unmake only pays for the pieces it changes and an evaluation reads them in O(1)
+ * The same goes for the pawn key: Zobrist keys of the pawns only, it changes when a pawn moves, promotes or is captured
+ * Bitboards: https://www.chessprogramming.org/Bitboards
+ */
+public final class BitBoard {
+
+    private static final int NUM_ALLIANCES = Alliance.values().length;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();     // values() copies the array on every call
+    private static final int NUM_PIECE_TYPES = PIECE_TYPES.length;
+
+    private final long[][] pieceBoards;     // [alliance][piece type]
+    private final long[] allianceBoards;    // [alliance]
+    private long occupancy;
+    private int packedScore;    // White minus black, middlegame and endgame packed, see PieceSquareTables
+    private int gamePhase;
+    private long pawnKey;       // Zobrist keys of the pawns XOR-ed together, keys the pawn structure caches
+
+    BitBoard() {
+        this.pieceBoards = new long[NUM_ALLIANCES][NUM_PIECE_TYPES];
+        this.allianceBoards = new long[NUM_ALLIANCES];
+        this.occupancy = 0L;
+    }
+
+    /**
+     * Copy constructor, masks are copied so both bitboards can change on their own
+     * @param other bitboard to copy
+     */
+    BitBoard(final BitBoard other) {
+        this.pieceBoards = new long[NUM_ALLIANCES][];
+        for (int i = 0; i < NUM_ALLIANCES; i++) {
+            this.pieceBoards[i] = other.pieceBoards[i].clone();
+        }
+        this.allianceBoards = other.allianceBoards.clone();
+        this.occupancy = other.occupancy;
+        this.packedScore = other.packedScore;
+        this.gamePhase = other.gamePhase;
+        this.pawnKey = other.pawnKey;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.occupancy) * 31 + Arrays.deepHashCode(this.pieceBoards);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BitBoard)) {
+            return false;
+        }
+        final BitBoard otherBitBoard = (BitBoard) other;
+        return this.occupancy == otherBitBoard.occupancy &&
+                Arrays.deepEquals(this.pieceBoards, otherBitBoard.pieceBoards);
+    }
+
+    public static long tileMask(final int coordinate) {
+        return 1L << coordinate;
+    }
+
+    void setPiece(final Piece piece) {
+        setPiece(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+    }
+
+    void setPiece(final Alliance alliance, final PieceType pieceType, final int coordinate) {
+        final long mask = tileMask(coordinate);
+        this.pieceBoards[alliance.ordinal()][pieceType.ordinal()] |= mask;
+        this.allianceBoards[alliance.ordinal()] |= mask;
+        this.occupancy |= mask;
+        this.packedScore += PieceSquareTables.getScore(alliance, pieceType, coordinate);
+        this.gamePhase += PieceSquareTables.getPhase(pieceType);
+        if (pieceType == PieceType.PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(alliance, pieceType, coordinate);
+        }
+    }
+
+    void removePiece(final Alliance alliance, final PieceType pieceType, final int coordinate) {
+        final long mask = ~tileMask(coordinate);
+        this.pieceBoards[alliance.ordinal()][pieceType.ordinal()] &= mask;
+        this.allianceBoards[alliance.ordinal()] &= mask;
+        this.occupancy &= mask;
+        this.packedScore -= PieceSquareTables.getScore(alliance, pieceType, coordinate);
+        this.gamePhase -= PieceSquareTables.getPhase(pieceType);
+        if (pieceType == PieceType.PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(alliance, pieceType, coordinate);
+        }
+    }
+
+    public long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceBoards[alliance.ordinal()][pieceType.ordinal()];
+    }
+
+    public long getAlliancePieces(final Alliance alliance) {
+        return this.allianceBoards[alliance.ordinal()];
+    }
+
+    public long getOccupancy() {
+        return this.occupancy;
+    }
+
+    /**
+     * @return material + piece square score of the position, packed (PieceSquareTables), positive when white is better
+     */
+    public int getPackedScore() {
+        return this.packedScore;
+    }
+
+    /**
+     * @return game phase, PieceSquareTables.MAX_GAME_PHASE at the start, 0 with only kings and pawns
+     */
+    public int getGamePhase() {
+        return this.gamePhase;
+    }
+
+    /**
+     * @return Zobrist key of the pawn structure, 0 without pawns
+     */
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    public boolean isTileOccupied(final int coordinate) {
+        return (this.occupancy & tileMask(coordinate)) != 0;
+    }
+
+    /**
+     * @param coordinate tile to look at
+     * @return alliance of the piece on the tile, null if the tile is empty
+     */
+    public Alliance getAllianceAt(final int coordinate) {
+        final long mask = tileMask(coordinate);
+        if ((this.allianceBoards[Alliance.WHITE.ordinal()] & mask) != 0) {
+            return Alliance.WHITE;
+        }
+        if ((this.allianceBoards[Alliance.BLACK.ordinal()] & mask) != 0) {
+            return Alliance.BLACK;
+        }
+        return null;
+    }
+
+    /**
+     * @param coordinate tile to look at
+     * @return type of the piece on the tile, null if the tile is empty
+     */
+    public PieceType getPieceTypeAt(final int coordinate) {
+        final long mask = tileMask(coordinate);
+        if ((this.occupancy & mask) == 0) {
+            return null;
+        }
+        final long[] allianceTypes = this.pieceBoards[(this.allianceBoards[Alliance.WHITE.ordinal()] & mask) != 0 ?
+                Alliance.WHITE.ordinal() : Alliance.BLACK.ordinal()];
+        for (final PieceType pieceType : PIECE_TYPES) {
+            if ((allianceTypes[pieceType.ordinal()] & mask) != 0) {
+                return pieceType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Is the tile attacked by any piece of the alliance? Answered from the bitboards alone,
+     * by looking outwards from the tile with each piece type's attack pattern, no move is generated
+     * @param coordinate tile to look at
+     * @param attacker alliance of the attacking pieces
+     * @return true if at least one piece of the attacker attacks the tile
+     */
+    public boolean isTileAttacked(final int coordinate, final Alliance attacker) {
+        final long[] attackerPieces = this.pieceBoards[attacker.ordinal()];
+        if ((Knight.getAttackMask(coordinate) & attackerPieces[PieceType.KNIGHT.ordinal()]) != 0 ||
+                (King.getAttackMask(coordinate) & attackerPieces[PieceType.KING.ordinal()]) != 0 ||
+                // A pawn attacks this tile from the tiles a pawn of the other alliance would attack from here
+                (Pawn.getAttackMask(attacker.opposite(), coordinate) & attackerPieces[PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        final long queens = attackerPieces[PieceType.QUEEN.ordinal()];
+        return (MagicBitBoards.rookAttacks(coordinate, this.occupancy) & (attackerPieces[PieceType.ROOK.ordinal()] | queens)) != 0 ||
+                (MagicBitBoards.bishopAttacks(coordinate, this.occupancy) & (attackerPieces[PieceType.BISHOP.ordinal()] | queens)) != 0;
+    }
+
+    /**
+     * Every piece of the alliance that attacks the tile
+     * @param coordinate tile to look at
+     * @param attacker alliance of the attacking pieces
+     * @param occupancy blockers for the sliding pieces, the board occupancy or a part of it
+     * @return bitmask of the attacking pieces
+     */
+    public long getAttackers(final int coordinate, final Alliance attacker, final long occupancy) {
+        final long[] attackerPieces = this.pieceBoards[attacker.ordinal()];
+        final long queens = attackerPieces[PieceType.QUEEN.ordinal()];
+        return (Knight.getAttackMask(coordinate) & attackerPieces[PieceType.KNIGHT.ordinal()]) |
+                (King.getAttackMask(coordinate) & attackerPieces[PieceType.KING.ordinal()]) |
+                (Pawn.getAttackMask(attacker.opposite(), coordinate) & attackerPieces[PieceType.PAWN.ordinal()]) |
+                (MagicBitBoards.rookAttacks(coordinate, occupancy) & (attackerPieces[PieceType.ROOK.ordinal()] | queens)) |
+                (MagicBitBoards.bishopAttacks(coordinate, occupancy) & (attackerPieces[PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @param alliance side of the king
+     * @return coordinate of the king, -1 if there is no king on the board
+     */
+    public int getKingCoordinate(final Alliance alliance) {
+        final long king = getPieces(alliance, PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+}
@@ -18,38 +18,82 @@ import java.util.*;
  */
 public class Board {
 
+    private static final Piece.PieceType[] BACK_RANK_TYPES = {
+            Piece.PieceType.ROOK, Piece.PieceType.KNIGHT, Piece.PieceType.BISHOP, Piece.PieceType.QUEEN,
+            Piece.PieceType.KING, Piece.PieceType.BISHOP, Piece.PieceType.KNIGHT, Piece.PieceType.ROOK
+    };
+
     /**
-     * Could have use array, but array is not immutable, List is immutable
-     * A board consists of list of tile with pieces content on it
+     * BitBoard is the source of truth of the position (which tile holds which piece type of which alliance)
+     * boardPieces is the adapter that hands out the actual Piece objects, gameBoard tiles are only made for callers that ask for them
      * Active white/black pieces -> non-active white/black pieces
      * White and Black players
      */
-    private final Map<Integer, Piece> boardConfig;
-    private final List<Tile> gameBoard;
+    private final BitBoard bitBoard;
+    private final Piece[] boardPieces;
+    private List<Tile> gameBoard;
     private final Collection<Piece> whitePieces;    //Active pieces on board
     private final Collection<Piece> blackPieces;    //Active pieces on board
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     private final Pawn enPassantPawn;
+    private final int castlingRights;
+    private final long zobristKey;
+    private Collection<Move> whiteStandardLegalMoves;   // Calculated on first access only
+    private Collection<Move> blackStandardLegalMoves;   // Calculated on first access only
 
     /**
      * To initiate board and after each time a player make a move
      * new board is created
+     * Moves and player state are not calculated here, they are calculated lazily for the side that is asked,
+     * so a board that is only probed for check never generates moves of the side that is not attacking
      *
      * @param builder
      */
     private Board(Builder builder) {
-        this.boardConfig = Collections.unmodifiableMap(builder.boardConfig);
-        this.gameBoard = createGameBoard(builder);  // Create game board with tile associated with pieces from boardConfig
-        this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
-        this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
+        // The builder keeps piece array and bitboard up to date as pieces are set, the board takes them over as they are
+        this.bitBoard = builder.bitBoard;
+        this.boardPieces = builder.boardConfig;
+        this.whitePieces = calculateActivePieces(Alliance.WHITE);
+        this.blackPieces = calculateActivePieces(Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
-        final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
-        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, blackStandardLegalMoves, whiteStandardLegalMoves);
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+        // A move hands over castling rights and key worked out from its parent board, a fresh board calculates them
+        this.castlingRights = builder.castlingRights != Builder.UNKNOWN_CASTLING_RIGHTS ?
+                builder.castlingRights : Zobrist.calculateCastlingRights(this);
+        this.zobristKey = builder.hasZobristKey ? builder.zobristKey : Zobrist.calculateKey(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.zobristKey);
+    }
+
+    /**
+     * Two boards are equal when they hold the same position: pieces, move maker, castling availability and en passant pawn
+     * The Zobrist key rejects almost every unequal board before the bitboards are compared
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Board)) {
+            return false;
+        }
+        final Board otherBoard = (Board) other;
+        return this.zobristKey == otherBoard.zobristKey &&
+                this.currentPlayer.getAlliance() == otherBoard.currentPlayer.getAlliance() &&
+                this.castlingRights == otherBoard.castlingRights &&
+                enPassantCoordinate(this.enPassantPawn) == enPassantCoordinate(otherBoard.enPassantPawn) &&
+                this.bitBoard.equals(otherBoard.bitBoard);
+    }
+
+    private static int enPassantCoordinate(final Pawn enPassantPawn) {
+        return enPassantPawn == null ? -1 : enPassantPawn.getPiecePosition();
     }
 
     /**
@@ -59,7 +103,7 @@ public class Board {
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            final String tileText = this.gameBoard.get(i).toString();
+            final String tileText = getTile(i).toString();
             builder.append(String.format("%3s", tileText));
             if ((i + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
                 builder.append("\n");
@@ -69,7 +113,43 @@ public class Board {
     }
 
     public Piece getPiece(final int coordinate) {
-        return this.boardConfig.get(coordinate);
+        return this.boardPieces[coordinate];
+    }
+
+    public boolean isTileOccupied(final int coordinate) {
+        return this.bitBoard.isTileOccupied(coordinate);
+    }
+
+    /**
+     * Constant time attack query on the bitboards, no move list is generated or scanned
+     * @param coordinate tile to look at
+     * @param attacker alliance of the attacking pieces
+     * @return true if the tile is attacked by the attacker
+     */
+    public boolean isTileAttacked(final int coordinate, final Alliance attacker) {
+        return this.bitBoard.isTileAttacked(coordinate, attacker);
+    }
+
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    /**
+     * Standard moves (no castles) of all pieces of a side, calculated the first time that side is asked for
+     * @param alliance side to get the moves of
+     * @return Collection of all standard moves of that side
+     */
+    public Collection<Move> getStandardLegalMoves(final Alliance alliance) {
+        if (alliance.isWhite()) {
+            if (this.whiteStandardLegalMoves == null) {
+                this.whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
+            }
+            return this.whiteStandardLegalMoves;
+        }
+        if (this.blackStandardLegalMoves == null) {
+            this.blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
+        }
+        return this.blackStandardLegalMoves;
     }
 
     /**
@@ -86,20 +166,16 @@ public class Board {
     }
 
     /**
-     * Tracking active piece for each team
-     * @param gameBoard current board state
+     * Tracking active piece for each team, walk the alliance occupancy mask one set bit at a time
      * @param alliance  which team we are counting
      * @return  Collection of active piece, use collection since order doesn't matter
      */
-    private static Collection<Piece> calculateActivePieces(final List<Tile> gameBoard, final Alliance alliance) {
+    private Collection<Piece> calculateActivePieces(final Alliance alliance) {
         final List<Piece> activePieces = new ArrayList<>();
-        for(final Tile tile : gameBoard) {
-            if (tile.isTileOccupied()) {
-                final Piece piece = tile.getPiece();
-                if (piece.getPieceAlliance() == alliance) {
-                    activePieces.add(piece);
-                }
-            }
+        long pieces = this.bitBoard.getAlliancePieces(alliance);
+        while (pieces != 0) {
+            activePieces.add(this.boardPieces[Long.numberOfTrailingZeros(pieces)]);
+            pieces &= pieces - 1;
         }
         return ImmutableList.copyOf(activePieces);
     }
@@ -116,7 +192,30 @@ public class Board {
         return this.enPassantPawn;
     }
 
+    /**
+     * @return combination of Zobrist castling bits still available on this board
+     */
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    /**
+     * 64 bit Zobrist key of the position, use it to key caches and to detect repetitions
+     * @return Zobrist key
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * Tile adapter for the GUI and older callers, tiles are created from the piece array on first use
+     * @param tileCoordinate tile to get
+     * @return tile with the piece on it, if any
+     */
     public Tile getTile(final int tileCoordinate) {
+        if (this.gameBoard == null) {
+            this.gameBoard = createGameBoard(this.boardPieces);
+        }
         return this.gameBoard.get(tileCoordinate);
     }
 
@@ -128,22 +227,26 @@ public class Board {
         return this.whitePlayer;
     }
 
+    public Player getPlayer(final Alliance alliance) {
+        return alliance.choosePlayer(this.whitePlayer, this.blackPlayer);
+    }
+
     public Player getCurrentPlayer() {
         return this.currentPlayer;
     }
 
     /**
      * Create actual game board is here,
-     * create tile with initial associated pieces from boardConfig (hold initial location of all pieces)
-     * @param builder to get boardConfig
+     * create tile with associated pieces from the piece array
+     * @param boardPieces piece on each tile, null for empty tile
      * @return List of tile with associated pieces
      */
-    private static List<Tile> createGameBoard(final Builder builder) {
+    private static List<Tile> createGameBoard(final Piece[] boardPieces) {
         final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            // If boardConfig returns Pieces, create occupied Tile with associated Pieces
+            // If there is a piece, create occupied Tile with associated Pieces
             // Else get an empty tile from EMPTY_TILES_CACHE (Tile class) with associated tile number
-            tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
+            tiles[i] = Tile.createTile(i, boardPieces[i]);
         }
         return ImmutableList.copyOf(tiles);
     }
@@ -151,33 +254,19 @@ public class Board {
     /**
      * Create stand board into boardConfig to set up board
      * Associate mainly with BUilder
+     * Pieces come from FenUtilities.createPiece with all castling rights, so their first move flags
+     * are the same as those of the start position read from FEN
      * @return this Board
      */
     public static Board createStandardBoard() {
         final Builder builder = new Builder();
-        //Black Layout
-        builder.setPiece(new Rook(Alliance.BLACK, 0));
-        builder.setPiece(new Knight(Alliance.BLACK, 1));
-        builder.setPiece(new Bishop(Alliance.BLACK, 2));
-        builder.setPiece(new Queen(Alliance.BLACK, 3));
-        builder.setPiece(new King(Alliance.BLACK, 4));
-        builder.setPiece(new Bishop(Alliance.BLACK, 5));
-        builder.setPiece(new Knight(Alliance.BLACK, 6));
-        builder.setPiece(new Rook(Alliance.BLACK, 7));
-        for (int i = 8; i < 16; i++) {
-            builder.setPiece(new Pawn(Alliance.BLACK, i));
-        }
-        // While Layout
-        builder.setPiece(new Rook(Alliance.WHITE, 56));
-        builder.setPiece(new Knight(Alliance.WHITE, 57));
-        builder.setPiece(new Bishop(Alliance.WHITE, 58));
-        builder.setPiece(new Queen(Alliance.WHITE, 59));
-        builder.setPiece(new King(Alliance.WHITE, 60));
-        builder.setPiece(new Bishop(Alliance.WHITE, 61));
-        builder.setPiece(new Knight(Alliance.WHITE, 62));
-        builder.setPiece(new Rook(Alliance.WHITE, 63));
-        for (int i = 48; i < 56; i++) {
-            builder.setPiece(new Pawn(Alliance.WHITE, i));
+        for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+            //Black Layout
+            builder.setPiece(FenUtilities.createPiece(Alliance.BLACK, BACK_RANK_TYPES[column], column, Zobrist.ALL_CASTLING));
+            builder.setPiece(FenUtilities.createPiece(Alliance.BLACK, Piece.PieceType.PAWN, 8 + column, Zobrist.ALL_CASTLING));
+            // While Layout
+            builder.setPiece(FenUtilities.createPiece(Alliance.WHITE, Piece.PieceType.PAWN, 48 + column, Zobrist.ALL_CASTLING));
+            builder.setPiece(FenUtilities.createPiece(Alliance.WHITE, BACK_RANK_TYPES[column], 56 + column, Zobrist.ALL_CASTLING));
         }
         builder.setMoveMaker(Alliance.WHITE);
         return builder.build();
@@ -189,30 +278,80 @@ public class Board {
 
     /**
      * Builder associates with pattern,
-     * Contain boardConfig: hold initial location of all pieces
+     * Contain boardConfig: hold location of all pieces, one slot per tile, with the matching bitboard kept alongside
      * CreateGameBoard() -> creatStandBoard() (boardConfig, setMoveMaker(), build(), setPiece()) -> return Board
      * Keep track of next move maker
+     * build() hands its piece array and bitboard over to the board without copying them,
+     * a builder used again after build() copies them first (copy on write), so the board it built never changes
      */
     public static class Builder  {
-        public Map<Integer, Piece> boardConfig;
+        Piece[] boardConfig;
+        BitBoard bitBoard;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        int castlingRights;
+        long zobristKey;
+        boolean hasZobristKey;
+        boolean isShared;               // boardConfig and bitBoard belong to a built board
+
+        static final int UNKNOWN_CASTLING_RIGHTS = -1;
 
         public Builder() {
-            this.boardConfig = new HashMap<>();
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+            this.bitBoard = new BitBoard();
+            this.castlingRights = UNKNOWN_CASTLING_RIGHTS;
+        }
+
+        /**
+         * Start from the pieces of a board: piece array and bitboard are copied in one go,
+         * so a move only removes and sets the pieces it changes instead of setting every piece again
+         * Move maker, en passant pawn, castling rights and key are not copied
+         * @param board board to copy the pieces of
+         */
+        public Builder(final Board board) {
+            this.boardConfig = board.boardPieces.clone();
+            this.bitBoard = new BitBoard(board.bitBoard);
+            this.castlingRights = UNKNOWN_CASTLING_RIGHTS;
         }
 
         /**
          * setPiece() -> boardConfig -> createGameBoard()
+         * A piece already on the tile is replaced
          * @param piece     piece that are being put into board builder to make board
          * @return Builder  with new pieces location
          */
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            copyIfShared();
+            final int coordinate = piece.getPiecePosition();
+            if (this.boardConfig[coordinate] != null) {
+                removePiece(this.boardConfig[coordinate]);
+            }
+            this.boardConfig[coordinate] = piece;
+            this.bitBoard.setPiece(piece);
             return this;
         }
 
+        /**
+         * @param piece piece to take off its tile
+         * @return Builder without the piece
+         */
+        public Builder removePiece(final Piece piece) {
+            copyIfShared();
+            final int coordinate = piece.getPiecePosition();
+            this.boardConfig[coordinate] = null;
+            this.bitBoard.removePiece(piece.getPieceAlliance(), piece.getPieceType(), coordinate);
+            return this;
+        }
+
+        /**
+         * @param coordinate tile to look at
+         * @return piece set on the tile so far, null if none
+         */
+        public Piece getPiece(final int coordinate) {
+            return this.boardConfig[coordinate];
+        }
+
         /**
          * Set the current moveMaker
          * @param nextMoveMaker
@@ -228,12 +367,50 @@ public class Board {
             return this;
         }
 
+        /**
+         * Move maker, en passant pawn and castling rights stay set for the next build(),
+         * the Zobrist key does not: it is only valid for the pieces it was set with
+         * @return board of the pieces and state set so far
+         */
         public Board build() {
-            return new Board(this);
+            final Board board = new Board(this);
+            this.isShared = true;
+            this.hasZobristKey = false;
+            return board;
+        }
+
+        private void copyIfShared() {
+            if (this.isShared) {
+                this.boardConfig = this.boardConfig.clone();
+                this.bitBoard = new BitBoard(this.bitBoard);
+                this.isShared = false;
+            }
         }
 
         public void setEnPassantPawn(Pawn enPassantPawn) {
             this.enPassantPawn = enPassantPawn;
         }
+
+        /**
+         * Castling availability after a move, if not set the board reads it from its unmoved kings and rooks
+         * @param castlingRights combination of Zobrist castling bits
+         * @return Builder
+         */
+        public Builder setCastlingRights(final int castlingRights) {
+            this.castlingRights = castlingRights;
+            return this;
+        }
+
+        /**
+         * Key updated incrementally by a move, if not set the board hashes itself from scratch
+         * Must be set together with setCastlingRights() so that key and rights agree
+         * @param zobristKey key of the board being built
+         * @return Builder
+         */
+        public Builder setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+            this.hasZobristKey = true;
+            return this;
+        }
     }
 }
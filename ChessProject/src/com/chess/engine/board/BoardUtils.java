@@ -20,8 +20,8 @@ public class BoardUtils {
             SEVENTH_COLUMN = initColumn(6),
             EIGHTH_COLUMN = initColumn(7);
 
-    public final List<String> ALGERBRAIC_NOTATION = initializeAlgebraicNotation();
-    public final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
+    public static final List<String> ALGERBRAIC_NOTATION = initializeAlgebraicNotation();
+    public static final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
     public static final boolean[] EIGHTH_RANK = initRow(0),
             SEVENTH_RANK = initRow(8),
             SIXTH_RANK = initRow(16),
@@ -57,7 +57,7 @@ public class BoardUtils {
         return table;
     }
 
-    private Map<String, Integer> initializePositionToCoordinateMap() {
+    private static Map<String, Integer> initializePositionToCoordinateMap() {
         final Map<String, Integer> positionToCoordinate = new HashMap<>();
         for (int i = START_TILE_INDEX; i < NUM_TILES; i++) {
             positionToCoordinate.put(ALGERBRAIC_NOTATION.get(i), i);
@@ -77,7 +77,7 @@ public class BoardUtils {
                 "a1", "b1", "c1", "d1", "e1", "f1", "g1", "h1"));
     }
 
-    public String getPositionAtCoordinate(final int coordinate) {
+    public static String getPositionAtCoordinate(final int coordinate) {
         return ALGERBRAIC_NOTATION.get(coordinate);
     }
 
@@ -89,7 +89,7 @@ public class BoardUtils {
         return coordinate >= 0 && coordinate < NUM_TILES;
     }
 
-    public int getCoordinateAtPosition(final String position) {
+    public static int getCoordinateAtPosition(final String position) {
         return POSITION_TO_COORDINATE.get(position);
     }
 
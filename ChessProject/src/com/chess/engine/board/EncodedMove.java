@@ -0,0 +1,173 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.InstancePromotion;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.Rook;
+
+/**
+ * Move packed in the low 16 bits of an int, so move lists are primitive arrays instead of Move objects
+ *  bits  0 - 5   tile the piece leaves
+ *  bits  6 - 11  tile the piece lands on
+ *  bits 12 - 15  flags: quiet, double pawn push, castles, capture, en passant, promotion (+ promoted piece)
+ * An encoded move does not know the board it was made on, toMove() turns it back into a Move for a given board
+ * Encoding moves: https://www.chessprogramming.org/Encoding_Moves#From-To_Based
+ * -> No need to initiate the class
+ */
+public final class EncodedMove {
+
+    public static final int NO_MOVE = 0;   // a8 to a8, never a real move
+
+    public static final int QUIET = 0, DOUBLE_PAWN_PUSH = 1, KING_CASTLE = 2, QUEEN_CASTLE = 3,
+            CAPTURE = 4, EN_PASSANT = 5, PROMOTION = 8, PROMOTION_CAPTURE = 12;
+
+    /**
+     * Promoted piece kept in the 2 low flag bits of a promotion, in this order
+     */
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN};
+
+    private static final int TILE_MASK = 0x3F;
+    private static final int DESTINATION_SHIFT = 6;
+    private static final int FLAGS_SHIFT = 12;
+    private static final int CAPTURE_BIT = 4;
+    private static final int PROMOTION_BIT = 8;
+
+    private EncodedMove() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    public static int encode(final int currentCoordinate, final int destinationCoordinate, final int flags) {
+        return currentCoordinate | (destinationCoordinate << DESTINATION_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    /**
+     * @param promotionType knight, bishop, rook or queen
+     * @param isCapture true if the pawn captures on the last rank
+     * @return flags of the promotion
+     */
+    public static int promotionFlags(final PieceType promotionType, final boolean isCapture) {
+        final int flags = isCapture ? PROMOTION_CAPTURE : PROMOTION;
+        switch (promotionType) {
+            case KNIGHT: return flags;
+            case BISHOP: return flags | 1;
+            case ROOK:   return flags | 2;
+            case QUEEN:  return flags | 3;
+            default: throw new RuntimeException("Cannot promote to " + promotionType);
+        }
+    }
+
+    public static int getCurrentCoordinate(final int move) {
+        return move & TILE_MASK;
+    }
+
+    public static int getDestinationCoordinate(final int move) {
+        return (move >>> DESTINATION_SHIFT) & TILE_MASK;
+    }
+
+    public static int getFlags(final int move) {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (getFlags(move) & CAPTURE_BIT) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlags(move) & PROMOTION_BIT) != 0;
+    }
+
+    public static boolean isCastle(final int move) {
+        final int flags = getFlags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static boolean isEnPassant(final int move) {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    /**
+     * @param move promotion move
+     * @return type of the piece the pawn becomes
+     */
+    public static PieceType getPromotionType(final int move) {
+        return PROMOTION_TYPES[getFlags(move) & 3];
+    }
+
+    /**
+     * Encode an existing move
+     * @param move move made by the piece generators or the players
+     * @return packed move
+     */
+    public static int fromMove(final Move move) {
+        final int currentCoordinate = move.getCurrentCoordinate();
+        final int destinationCoordinate = move.getDestinationCoordinate();
+        final int flags;
+        if (move instanceof Move.PawnPromotion) {
+            flags = promotionFlags(((Move.PawnPromotion) move).getPromotedPiece().getPieceType(), move.getAttackedPiece() != null);
+        } else if (move instanceof Move.KingSideCastleMove) {
+            flags = KING_CASTLE;
+        } else if (move instanceof Move.QueenSideCastleMove) {
+            flags = QUEEN_CASTLE;
+        } else if (move instanceof Move.PawnEnPassantAttackMove) {
+            flags = EN_PASSANT;
+        } else if (move instanceof Move.PawnJump) {
+            flags = DOUBLE_PAWN_PUSH;
+        } else if (move.getAttackedPiece() != null) {
+            flags = CAPTURE;
+        } else {
+            flags = QUIET;
+        }
+        return encode(currentCoordinate, destinationCoordinate, flags);
+    }
+
+    /**
+     * Decode a move on the board it was generated for, the result equals the move the piece generators make
+     * @param board board the move is played on
+     * @param move packed move
+     * @return Move of the matching Move class
+     */
+    public static Move toMove(final Board board, final int move) {
+        final int currentCoordinate = getCurrentCoordinate(move);
+        final int destinationCoordinate = getDestinationCoordinate(move);
+        final Piece movedPiece = board.getPiece(currentCoordinate);
+        if (movedPiece == null) {
+            throw new RuntimeException("No piece to move on " + BoardUtils.getPositionAtCoordinate(currentCoordinate));
+        }
+        final boolean isPawn = movedPiece.getPieceType() == PieceType.PAWN;
+        switch (getFlags(move)) {
+            case QUIET:
+                return isPawn ? new Move.PawnMove(board, movedPiece, destinationCoordinate) :
+                        new Move.MajorMove(board, movedPiece, destinationCoordinate);
+            case DOUBLE_PAWN_PUSH:
+                return new Move.PawnJump(board, movedPiece, destinationCoordinate);
+            case KING_CASTLE:
+                return new Move.KingSideCastleMove(board, movedPiece, destinationCoordinate,
+                        (Rook) board.getPiece(currentCoordinate + 3), currentCoordinate + 3, currentCoordinate + 1);
+            case QUEEN_CASTLE:
+                return new Move.QueenSideCastleMove(board, movedPiece, destinationCoordinate,
+                        (Rook) board.getPiece(currentCoordinate - 4), currentCoordinate - 4, currentCoordinate - 1);
+            case CAPTURE:
+                return isPawn ? new Move.PawnAttackMove(board, movedPiece, destinationCoordinate, board.getPiece(destinationCoordinate)) :
+                        new Move.MajorAttackMove(board, movedPiece, destinationCoordinate, board.getPiece(destinationCoordinate));
+            case EN_PASSANT:
+                return new Move.PawnEnPassantAttackMove(board, movedPiece, destinationCoordinate, board.getEnPassantPawn());
+            default:
+                final Move pawnMove = isCapture(move) ?
+                        new Move.PawnAttackMove(board, movedPiece, destinationCoordinate, board.getPiece(destinationCoordinate)) :
+                        new Move.PawnMove(board, movedPiece, destinationCoordinate);
+                return new Move.PawnPromotion(InstancePromotion.INSTANCE.getPiece(movedPiece.getPieceAlliance(),
+                        getPromotionType(move), destinationCoordinate, false), pawnMove);
+        }
+    }
+
+    /**
+     * Coordinate notation used by perft tools and UCI: e2e4, e7e8q
+     * @param move packed move
+     * @return move as text
+     */
+    public static String toString(final int move) {
+        final String text = BoardUtils.getPositionAtCoordinate(getCurrentCoordinate(move)) +
+                BoardUtils.getPositionAtCoordinate(getDestinationCoordinate(move));
+        return isPromotion(move) ? text + getPromotionType(move).toString().toLowerCase() : text;
+    }
+}
@@ -0,0 +1,211 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.InstancePromotion;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Read and write boards in Forsyth-Edwards Notation
+ * FEN: https://www.chessprogramming.org/Forsyth-Edwards_Notation
+ * Ex: standard board is "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"
+ * -> No need to initiate the class
+ */
+public final class FenUtilities {
+
+    private FenUtilities() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * Set up a board from a FEN string
+     * This engine keeps castling availability in the first move flag of kings and rooks, and the double pawn move
+     * in the first move flag of pawns, so those flags are worked out from the castling field and the pawn ranks
+     * @param fenString piece placement, side to move, castling, en passant (move counters are ignored)
+     * @return board of the FEN
+     */
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split("\\s+");
+        if (fenPartitions.length < 4) {
+            throw new RuntimeException("Invalid FEN String " + fenString);
+        }
+        final String castlingField = fenPartitions[2];
+        final int castlingRights = parseCastlingRights(castlingField);
+        final Board.Builder builder = new Board.Builder();
+        int tileCoordinate = 0;
+        for (final char fenChar : fenPartitions[0].toCharArray()) {
+            if (fenChar == '/') {
+                continue;
+            }
+            if (Character.isDigit(fenChar)) {
+                tileCoordinate += fenChar - '0';
+                continue;
+            }
+            if (!BoardUtils.isValidTileCoordinate(tileCoordinate)) {
+                throw new RuntimeException("Invalid FEN String " + fenString);
+            }
+            builder.setPiece(createPiece(fenChar, tileCoordinate, castlingRights));
+            tileCoordinate++;
+        }
+        if (tileCoordinate != BoardUtils.NUM_TILES) {
+            throw new RuntimeException("Invalid FEN String " + fenString);
+        }
+        final Alliance moveMaker = parseMoveMaker(fenPartitions[1]);
+        builder.setMoveMaker(moveMaker);
+        builder.setCastlingRights(castlingRights);
+        if (!fenPartitions[3].equals("-")) {
+            // FEN gives the tile behind the pawn that jumped, the board keeps the pawn itself
+            final int enPassantTile = BoardUtils.getCoordinateAtPosition(fenPartitions[3]);
+            final int pawnCoordinate = enPassantTile + moveMaker.getDirection() * -BoardUtils.NUM_TILES_PER_ROW;
+            final Piece pawn = builder.getPiece(pawnCoordinate);
+            if (pawn == null || pawn.getPieceType() != Piece.PieceType.PAWN || pawn.getPieceAlliance() == moveMaker) {
+                throw new RuntimeException("Invalid FEN en passant tile " + fenPartitions[3]);
+            }
+            builder.setEnPassantPawn((Pawn) pawn);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write the board as FEN, move counters are not tracked by Board so they are always "0 1"
+     * @param board board to write
+     * @return FEN string
+     */
+    public static String createFENFromGame(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+            int emptyTiles = 0;
+            for (int column = 0; column < BoardUtils.NUM_TILES_PER_ROW; column++) {
+                final Piece piece = board.getPiece(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                if (piece == null) {
+                    emptyTiles++;
+                    continue;
+                }
+                if (emptyTiles != 0) {
+                    builder.append(emptyTiles);
+                    emptyTiles = 0;
+                }
+                final String pieceText = piece.toString();
+                builder.append(piece.getPieceAlliance().isWhite() ? pieceText : pieceText.toLowerCase());
+            }
+            if (emptyTiles != 0) {
+                builder.append(emptyTiles);
+            }
+            if (row != BoardUtils.NUM_TILES_PER_ROW - 1) {
+                builder.append('/');
+            }
+        }
+        builder.append(' ').append(board.getCurrentPlayer().getAlliance().isWhite() ? 'w' : 'b');
+        builder.append(' ').append(calculateCastleText(board.getCastlingRights()));
+        builder.append(' ').append(calculateEnPassantText(board));
+        builder.append(" 0 1");
+        return builder.toString();
+    }
+
+    private static Piece createPiece(final char fenChar, final int tileCoordinate, final int castlingRights) {
+        final Alliance alliance = Character.isUpperCase(fenChar) ? Alliance.WHITE : Alliance.BLACK;
+        switch (Character.toLowerCase(fenChar)) {
+            case 'p': return createPiece(alliance, Piece.PieceType.PAWN, tileCoordinate, castlingRights);
+            case 'n': return createPiece(alliance, Piece.PieceType.KNIGHT, tileCoordinate, castlingRights);
+            case 'b': return createPiece(alliance, Piece.PieceType.BISHOP, tileCoordinate, castlingRights);
+            case 'r': return createPiece(alliance, Piece.PieceType.ROOK, tileCoordinate, castlingRights);
+            case 'q': return createPiece(alliance, Piece.PieceType.QUEEN, tileCoordinate, castlingRights);
+            case 'k': return createPiece(alliance, Piece.PieceType.KING, tileCoordinate, castlingRights);
+            default: throw new RuntimeException("Invalid FEN piece " + fenChar);
+        }
+    }
+
+    /**
+     * Piece with its first move flag worked out from the position alone:
+     * kings and rooks from the castling rights, pawns from their start rank, other pieces never need it
+     * Also used by MutableBoard to get pieces back from its bitboards, pieces come from the flyweight registry
+     */
+    static Piece createPiece(final Alliance alliance,
+                             final Piece.PieceType pieceType,
+                             final int tileCoordinate,
+                             final int castlingRights) {
+        final boolean isFirstMove;
+        switch (pieceType) {
+            case PAWN:
+                isFirstMove = alliance.isWhite() ? BoardUtils.SECOND_RANK[tileCoordinate] : BoardUtils.SEVENTH_RANK[tileCoordinate];
+                break;
+            case ROOK:
+                isFirstMove = isCastleRook(tileCoordinate, castlingRights);
+                break;
+            case KING:
+                isFirstMove = isCastleKing(alliance, tileCoordinate, castlingRights);
+                break;
+            default:
+                isFirstMove = false;
+        }
+        return InstancePromotion.INSTANCE.getPiece(alliance, pieceType, tileCoordinate, isFirstMove);
+    }
+
+    private static boolean isCastleRook(final int tileCoordinate, final int castlingRights) {
+        switch (tileCoordinate) {
+            case 63: return (castlingRights & Zobrist.WHITE_KING_SIDE) != 0;
+            case 56: return (castlingRights & Zobrist.WHITE_QUEEN_SIDE) != 0;
+            case 7:  return (castlingRights & Zobrist.BLACK_KING_SIDE) != 0;
+            case 0:  return (castlingRights & Zobrist.BLACK_QUEEN_SIDE) != 0;
+            default: return false;
+        }
+    }
+
+    private static boolean isCastleKing(final Alliance alliance, final int tileCoordinate, final int castlingRights) {
+        if (alliance.isWhite()) {
+            return tileCoordinate == 60 && (castlingRights & (Zobrist.WHITE_KING_SIDE | Zobrist.WHITE_QUEEN_SIDE)) != 0;
+        }
+        return tileCoordinate == 4 && (castlingRights & (Zobrist.BLACK_KING_SIDE | Zobrist.BLACK_QUEEN_SIDE)) != 0;
+    }
+
+    private static Alliance parseMoveMaker(final String moveMakerString) {
+        if (moveMakerString.equals("w")) {
+            return Alliance.WHITE;
+        } else if (moveMakerString.equals("b")) {
+            return Alliance.BLACK;
+        }
+        throw new RuntimeException("Invalid FEN side to move " + moveMakerString);
+    }
+
+    private static int parseCastlingRights(final String castlingField) {
+        int castlingRights = Zobrist.NO_CASTLING;
+        for (final char castleChar : castlingField.toCharArray()) {
+            switch (castleChar) {
+                case 'K': castlingRights |= Zobrist.WHITE_KING_SIDE; break;
+                case 'Q': castlingRights |= Zobrist.WHITE_QUEEN_SIDE; break;
+                case 'k': castlingRights |= Zobrist.BLACK_KING_SIDE; break;
+                case 'q': castlingRights |= Zobrist.BLACK_QUEEN_SIDE; break;
+                case '-': break;
+                default: throw new RuntimeException("Invalid FEN castling " + castlingField);
+            }
+        }
+        return castlingRights;
+    }
+
+    private static String calculateCastleText(final int castlingRights) {
+        final StringBuilder builder = new StringBuilder();
+        if ((castlingRights & Zobrist.WHITE_KING_SIDE) != 0) {
+            builder.append('K');
+        }
+        if ((castlingRights & Zobrist.WHITE_QUEEN_SIDE) != 0) {
+            builder.append('Q');
+        }
+        if ((castlingRights & Zobrist.BLACK_KING_SIDE) != 0) {
+            builder.append('k');
+        }
+        if ((castlingRights & Zobrist.BLACK_QUEEN_SIDE) != 0) {
+            builder.append('q');
+        }
+        return builder.length() == 0 ? "-" : builder.toString();
+    }
+
+    private static String calculateEnPassantText(final Board board) {
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn == null) {
+            return "-";
+        }
+        // Tile behind the pawn that jumped, seen from the side that jumped
+        return BoardUtils.getPositionAtCoordinate(enPassantPawn.getPiecePosition() -
+                enPassantPawn.getPieceAlliance().getDirection() * BoardUtils.NUM_TILES_PER_ROW);
+    }
+}
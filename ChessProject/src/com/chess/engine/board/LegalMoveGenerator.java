@@ -0,0 +1,354 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Strictly legal moves without executing them
+ * Checkers (opponent pieces giving check) and pinned pieces (own pieces that shield the king from a slider)
+ * are worked out once per board, then each standard move is accepted or rejected with a few mask tests:
+ *  - king moves: destination must not be attacked once the king has left its tile
+ *  - double check: only king moves
+ *  - single check: the move must capture the checker or block between checker and king
+ *  - pinned piece: the move must stay on the line through king and pinned piece
+ *  - en passant: two pawns leave the same row, so the king is tested again on the resulting occupancy
+ * The same tests drive generateLegalMoves(), which writes encoded moves (EncodedMove) straight from the bitboards
+ * into a MoveList, without any Move object
+ * Legal move generation: https://www.chessprogramming.org/Move_Generation#Legal
+ *                        https://www.chessprogramming.org/Pin
+ */
+public final class LegalMoveGenerator {
+
+    /**
+     * Tiles strictly between two tiles on the same row, column or diagonal, 0 if not aligned, [tile][tile]
+     */
+    private static final long[][] BETWEEN_TILES = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    /**
+     * Whole line (edge to edge) through two aligned tiles, 0 if not aligned, [tile][tile]
+     */
+    private static final long[][] LINE_TILES = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+
+    static {
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                final long fromMask = BitBoard.tileMask(from), toMask = BitBoard.tileMask(to);
+                if ((MagicBitBoards.rookAttacks(from, 0L) & toMask) != 0) {
+                    BETWEEN_TILES[from][to] = MagicBitBoards.rookAttacks(from, toMask) & MagicBitBoards.rookAttacks(to, fromMask);
+                    LINE_TILES[from][to] = (MagicBitBoards.rookAttacks(from, 0L) & MagicBitBoards.rookAttacks(to, 0L)) | fromMask | toMask;
+                } else if ((MagicBitBoards.bishopAttacks(from, 0L) & toMask) != 0) {
+                    BETWEEN_TILES[from][to] = MagicBitBoards.bishopAttacks(from, toMask) & MagicBitBoards.bishopAttacks(to, fromMask);
+                    LINE_TILES[from][to] = (MagicBitBoards.bishopAttacks(from, 0L) & MagicBitBoards.bishopAttacks(to, 0L)) | fromMask | toMask;
+                }
+            }
+        }
+    }
+
+    private BitBoard bitBoard;
+    private Alliance alliance;
+    private Alliance opponent;
+    private int kingCoordinate;
+    private long occupancy;
+    private long checkers;
+    private long pinnedPieces;
+    private long checkEvasionTiles;     // Tiles a non king move must land on, all tiles when not in check
+    private int castlingRights;
+    private int enPassantCoordinate;    // Pawn that can be taken en passant, -1 if none
+
+    /**
+     * Empty generator, setPosition() before use
+     * One generator can be kept and set again for every position, so a tree walk does not allocate one per node
+     */
+    public LegalMoveGenerator() {
+    }
+
+    /**
+     * Work out checkers and pinned pieces of the alliance
+     * @param board board to generate on
+     * @param alliance side to generate legal moves for
+     */
+    public LegalMoveGenerator(final Board board, final Alliance alliance) {
+        setPosition(board.getBitBoard(), alliance, board.getCastlingRights(),
+                board.getEnPassantPawn() == null ? -1 : board.getEnPassantPawn().getPiecePosition());
+    }
+
+    /**
+     * Work out checkers and pinned pieces of the alliance, replacing the previous position
+     * @param bitBoard pieces of the position
+     * @param alliance side to generate legal moves for
+     * @param castlingRights castling availability (Zobrist castling bits)
+     * @param enPassantCoordinate tile of the pawn that can be taken en passant, -1 if none
+     * @return this generator
+     */
+    public LegalMoveGenerator setPosition(final BitBoard bitBoard,
+                                          final Alliance alliance,
+                                          final int castlingRights,
+                                          final int enPassantCoordinate) {
+        this.bitBoard = bitBoard;
+        this.alliance = alliance;
+        this.opponent = alliance.opposite();
+        this.kingCoordinate = bitBoard.getKingCoordinate(alliance);
+        this.occupancy = bitBoard.getOccupancy();
+        this.checkers = bitBoard.getAttackers(this.kingCoordinate, this.opponent, this.occupancy);
+        this.pinnedPieces = calculatePinnedPieces();
+        if (this.checkers == 0) {
+            this.checkEvasionTiles = -1L;
+        } else {
+            final int checkerCoordinate = Long.numberOfTrailingZeros(this.checkers);
+            this.checkEvasionTiles = this.checkers | BETWEEN_TILES[this.kingCoordinate][checkerCoordinate];
+        }
+        this.castlingRights = castlingRights;
+        this.enPassantCoordinate = enPassantCoordinate;
+        return this;
+    }
+
+    public static long getBetweenTiles(final int from, final int to) {
+        return BETWEEN_TILES[from][to];
+    }
+
+    public static long getLineTiles(final int from, final int to) {
+        return LINE_TILES[from][to];
+    }
+
+    public long getCheckers() {
+        return this.checkers;
+    }
+
+    public long getPinnedPieces() {
+        return this.pinnedPieces;
+    }
+
+    /**
+     * Keep the strictly legal moves of the collection
+     * @param standardLegalMoves moves from the piece generators, legal or not with respect to the own king
+     * @return moves that do not leave the own king in check
+     */
+    public List<Move> calculateLegalMoves(final Collection<Move> standardLegalMoves) {
+        final List<Move> legalMoves = new ArrayList<>(standardLegalMoves.size());
+        for (final Move move : standardLegalMoves) {
+            if (isLegal(move)) {
+                legalMoves.add(move);
+            }
+        }
+        return legalMoves;
+    }
+
+    /**
+     * @param move standard move of the alliance this generator was made for
+     * @return true if the move does not leave the own king in check
+     */
+    public boolean isLegal(final Move move) {
+        if (move.isCastlingMove()) {
+            return true;    // Castles are only made when the king is not in check and does not pass or land on an attacked tile
+        }
+        final int currentCoordinate = move.getCurrentCoordinate();
+        final int destinationCoordinate = move.getDestinationCoordinate();
+        if (currentCoordinate == this.kingCoordinate) {
+            // King is taken off the board, so a slider checking along the line still covers the tile behind the king
+            return this.bitBoard.getAttackers(destinationCoordinate, this.opponent,
+                    this.occupancy ^ BitBoard.tileMask(currentCoordinate)) == 0;
+        }
+        if (move instanceof Move.PawnEnPassantAttackMove) {
+            return isLegalEnPassant(currentCoordinate, destinationCoordinate);
+        }
+        if (Long.bitCount(this.checkers) > 1) {
+            return false;
+        }
+        final long destinationMask = BitBoard.tileMask(destinationCoordinate);
+        if ((this.checkEvasionTiles & destinationMask) == 0) {
+            return false;
+        }
+        return (this.pinnedPieces & BitBoard.tileMask(currentCoordinate)) == 0 ||
+                (LINE_TILES[this.kingCoordinate][currentCoordinate] & destinationMask) != 0;
+    }
+
+    /**
+     * Write every strictly legal move of the alliance into the list, encoded with EncodedMove
+     * Nothing is allocated, the list is cleared first
+     * @param moveList list to fill
+     */
+    public void generateLegalMoves(final MoveList moveList) {
+        moveList.clear();
+        final long ownPieces = this.bitBoard.getAlliancePieces(this.alliance);
+        final long opponentPieces = this.bitBoard.getAlliancePieces(this.opponent);
+        generateKingMoves(moveList, ownPieces, opponentPieces);
+        if (Long.bitCount(this.checkers) > 1) {
+            return;     // Double check, only the king can move
+        }
+        final long targets = ~ownPieces & this.checkEvasionTiles;
+        generatePawnMoves(moveList, opponentPieces);
+        // Pinned knights can never stay on their pin line
+        long knights = this.bitBoard.getPieces(this.alliance, PieceType.KNIGHT) & ~this.pinnedPieces;
+        while (knights != 0) {
+            final int coordinate = Long.numberOfTrailingZeros(knights);
+            addMoves(moveList, coordinate, Knight.getAttackMask(coordinate) & targets, opponentPieces);
+            knights &= knights - 1;
+        }
+        final long queens = this.bitBoard.getPieces(this.alliance, PieceType.QUEEN);
+        long bishops = this.bitBoard.getPieces(this.alliance, PieceType.BISHOP) | queens;
+        while (bishops != 0) {
+            final int coordinate = Long.numberOfTrailingZeros(bishops);
+            addMoves(moveList, coordinate, MagicBitBoards.bishopAttacks(coordinate, this.occupancy) &
+                    targets & pinLine(coordinate), opponentPieces);
+            bishops &= bishops - 1;
+        }
+        long rooks = this.bitBoard.getPieces(this.alliance, PieceType.ROOK) | queens;
+        while (rooks != 0) {
+            final int coordinate = Long.numberOfTrailingZeros(rooks);
+            addMoves(moveList, coordinate, MagicBitBoards.rookAttacks(coordinate, this.occupancy) &
+                    targets & pinLine(coordinate), opponentPieces);
+            rooks &= rooks - 1;
+        }
+        if (this.checkers == 0) {
+            generateCastles(moveList);
+        }
+    }
+
+    private void generateKingMoves(final MoveList moveList, final long ownPieces, final long opponentPieces) {
+        final long occupancyWithoutKing = this.occupancy ^ BitBoard.tileMask(this.kingCoordinate);
+        long destinations = King.getAttackMask(this.kingCoordinate) & ~ownPieces;
+        while (destinations != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(destinations);
+            if (this.bitBoard.getAttackers(destinationCoordinate, this.opponent, occupancyWithoutKing) == 0) {
+                moveList.add(EncodedMove.encode(this.kingCoordinate, destinationCoordinate,
+                        (opponentPieces & BitBoard.tileMask(destinationCoordinate)) != 0 ? EncodedMove.CAPTURE : EncodedMove.QUIET));
+            }
+            destinations &= destinations - 1;
+        }
+    }
+
+    /**
+     * Pushes, double pushes, captures, en passant and promotions of every pawn
+     */
+    private void generatePawnMoves(final MoveList moveList, final long opponentPieces) {
+        final int forward = this.alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+        final boolean[] startRank = this.alliance.isWhite() ? BoardUtils.SECOND_RANK : BoardUtils.SEVENTH_RANK;
+        long pawns = this.bitBoard.getPieces(this.alliance, PieceType.PAWN);
+        while (pawns != 0) {
+            final int coordinate = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final long allowedTiles = this.checkEvasionTiles & pinLine(coordinate);
+            final int pushCoordinate = coordinate + forward;
+            if (!this.bitBoard.isTileOccupied(pushCoordinate)) {
+                if ((allowedTiles & BitBoard.tileMask(pushCoordinate)) != 0) {
+                    addPawnMove(moveList, coordinate, pushCoordinate, false);
+                }
+                final int jumpCoordinate = pushCoordinate + forward;
+                if (startRank[coordinate] && !this.bitBoard.isTileOccupied(jumpCoordinate) &&
+                        (allowedTiles & BitBoard.tileMask(jumpCoordinate)) != 0) {
+                    moveList.add(EncodedMove.encode(coordinate, jumpCoordinate, EncodedMove.DOUBLE_PAWN_PUSH));
+                }
+            }
+            final long attacks = Pawn.getAttackMask(this.alliance, coordinate);
+            long captures = attacks & opponentPieces & allowedTiles;
+            while (captures != 0) {
+                addPawnMove(moveList, coordinate, Long.numberOfTrailingZeros(captures), true);
+                captures &= captures - 1;
+            }
+            if (this.enPassantCoordinate != -1) {
+                final int enPassantDestination = this.enPassantCoordinate + forward;
+                if ((attacks & BitBoard.tileMask(enPassantDestination)) != 0 &&
+                        isLegalEnPassant(coordinate, enPassantDestination)) {
+                    moveList.add(EncodedMove.encode(coordinate, enPassantDestination, EncodedMove.EN_PASSANT));
+                }
+            }
+        }
+    }
+
+    private void addPawnMove(final MoveList moveList,
+                             final int currentCoordinate,
+                             final int destinationCoordinate,
+                             final boolean isCapture) {
+        if (this.alliance.isPromotionTile(destinationCoordinate)) {
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate, EncodedMove.promotionFlags(PieceType.QUEEN, isCapture)));
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate, EncodedMove.promotionFlags(PieceType.ROOK, isCapture)));
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate, EncodedMove.promotionFlags(PieceType.BISHOP, isCapture)));
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate, EncodedMove.promotionFlags(PieceType.KNIGHT, isCapture)));
+        } else {
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate,
+                    isCapture ? EncodedMove.CAPTURE : EncodedMove.QUIET));
+        }
+    }
+
+    private static void addMoves(final MoveList moveList,
+                                 final int currentCoordinate,
+                                 long destinations,
+                                 final long opponentPieces) {
+        while (destinations != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(destinations);
+            moveList.add(EncodedMove.encode(currentCoordinate, destinationCoordinate,
+                    (opponentPieces & BitBoard.tileMask(destinationCoordinate)) != 0 ? EncodedMove.CAPTURE : EncodedMove.QUIET));
+            destinations &= destinations - 1;
+        }
+    }
+
+    /**
+     * Castles still available, with empty tiles between king and rook and no attacked tile on the king's path
+     * Only asked when the king is not in check
+     */
+    private void generateCastles(final MoveList moveList) {
+        final boolean isWhite = this.alliance.isWhite();
+        final int kingSide = isWhite ? Zobrist.WHITE_KING_SIDE : Zobrist.BLACK_KING_SIDE;
+        final int queenSide = isWhite ? Zobrist.WHITE_QUEEN_SIDE : Zobrist.BLACK_QUEEN_SIDE;
+        final int king = this.kingCoordinate;
+        if ((this.castlingRights & kingSide) != 0 &&
+                (this.occupancy & (BitBoard.tileMask(king + 1) | BitBoard.tileMask(king + 2))) == 0 &&
+                !this.bitBoard.isTileAttacked(king + 1, this.opponent) &&
+                !this.bitBoard.isTileAttacked(king + 2, this.opponent)) {
+            moveList.add(EncodedMove.encode(king, king + 2, EncodedMove.KING_CASTLE));
+        }
+        if ((this.castlingRights & queenSide) != 0 &&
+                (this.occupancy & (BitBoard.tileMask(king - 1) | BitBoard.tileMask(king - 2) | BitBoard.tileMask(king - 3))) == 0 &&
+                !this.bitBoard.isTileAttacked(king - 1, this.opponent) &&
+                !this.bitBoard.isTileAttacked(king - 2, this.opponent)) {
+            moveList.add(EncodedMove.encode(king, king - 2, EncodedMove.QUEEN_CASTLE));
+        }
+    }
+
+    /**
+     * @param coordinate tile of an own piece
+     * @return tiles the piece may move to without exposing the king, all tiles if it is not pinned
+     */
+    private long pinLine(final int coordinate) {
+        return (this.pinnedPieces & BitBoard.tileMask(coordinate)) == 0 ? -1L : LINE_TILES[this.kingCoordinate][coordinate];
+    }
+
+    /**
+     * Both pawns leave the row of the king at once, so test the king again on the occupancy after the capture
+     */
+    private boolean isLegalEnPassant(final int currentCoordinate, final int destinationCoordinate) {
+        final long capturedMask = BitBoard.tileMask(this.enPassantCoordinate);
+        final long nextOccupancy = (this.occupancy ^ BitBoard.tileMask(currentCoordinate) ^ capturedMask) |
+                BitBoard.tileMask(destinationCoordinate);
+        return (this.bitBoard.getAttackers(this.kingCoordinate, this.opponent, nextOccupancy) & ~capturedMask) == 0;
+    }
+
+    /**
+     * Look from the king along rows, columns and diagonals for opponent sliders,
+     * a single own piece between king and slider is pinned
+     */
+    private long calculatePinnedPieces() {
+        final long rooksAndQueens = this.bitBoard.getPieces(this.opponent, PieceType.ROOK) |
+                this.bitBoard.getPieces(this.opponent, PieceType.QUEEN);
+        final long bishopsAndQueens = this.bitBoard.getPieces(this.opponent, PieceType.BISHOP) |
+                this.bitBoard.getPieces(this.opponent, PieceType.QUEEN);
+        long snipers = (MagicBitBoards.rookAttacks(this.kingCoordinate, 0L) & rooksAndQueens) |
+                (MagicBitBoards.bishopAttacks(this.kingCoordinate, 0L) & bishopsAndQueens);
+        final long ownPieces = this.bitBoard.getAlliancePieces(this.alliance);
+        long pinned = 0L;
+        while (snipers != 0) {
+            final long blockers = BETWEEN_TILES[this.kingCoordinate][Long.numberOfTrailingZeros(snipers)] & this.occupancy;
+            if (Long.bitCount(blockers) == 1 && (blockers & ownPieces) != 0) {
+                pinned |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+}
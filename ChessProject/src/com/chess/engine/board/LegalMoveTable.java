@@ -0,0 +1,73 @@
+package com.chess.engine.board;
+
+import java.util.Collection;
+
+/**
+ * Legal moves of a player indexed by their from and to tiles, so a move is found or checked in constant time
+ * instead of scanning the legal move list
+ * Open addressing hash table keyed by from * 64 + to, sized to at least twice the number of moves (a full 64x64 slot
+ * table would be made on every board a move is checked on, this one is 1 to 2 KB for a normal position)
+ * The four promotions of a pawn share a key and sit next to each other in the probe sequence, the queen comes first
+ * Open addressing: https://en.wikipedia.org/wiki/Open_addressing
+ */
+public final class LegalMoveTable {
+
+    private static final int MIN_SIZE = 16;
+
+    private final Move[] table;
+    private final int mask;
+
+    public LegalMoveTable(final Collection<Move> legalMoves) {
+        final int size = Math.max(MIN_SIZE, Integer.highestOneBit(Math.max(legalMoves.size(), 1) * 2) << 1);
+        this.table = new Move[size];
+        this.mask = size - 1;
+        for (final Move move : legalMoves) {
+            int slot = slot(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+            while (this.table[slot] != null) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.table[slot] = move;
+        }
+    }
+
+    /**
+     * @param currentCoordinate tile the piece leaves
+     * @param destinationCoordinate tile the piece lands on
+     * @return first legal move between the two tiles (queen promotion for promotions), null if there is none
+     */
+    public Move getMove(final int currentCoordinate, final int destinationCoordinate) {
+        for (int slot = slot(currentCoordinate, destinationCoordinate); this.table[slot] != null; slot = (slot + 1) & this.mask) {
+            final Move move = this.table[slot];
+            if (move.getCurrentCoordinate() == currentCoordinate && move.getDestinationCoordinate() == destinationCoordinate) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param move move to look for
+     * @return true if an equal move is in the table
+     */
+    public boolean contains(final Move move) {
+        final int currentCoordinate = move.getCurrentCoordinate();
+        final int destinationCoordinate = move.getDestinationCoordinate();
+        if (!BoardUtils.isValidTileCoordinate(currentCoordinate) || !BoardUtils.isValidTileCoordinate(destinationCoordinate)) {
+            return false;   // Null move
+        }
+        for (int slot = slot(currentCoordinate, destinationCoordinate); this.table[slot] != null; slot = (slot + 1) & this.mask) {
+            if (this.table[slot].equals(move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Multiply by a large odd constant and keep the top bits, spreads the 4096 from/to keys over the table
+     */
+    private int slot(final int currentCoordinate, final int destinationCoordinate) {
+        final int key = currentCoordinate * BoardUtils.NUM_TILES + destinationCoordinate;
+        return ((key * 0x9E3779B1) >>> 16) & this.mask;
+    }
+}
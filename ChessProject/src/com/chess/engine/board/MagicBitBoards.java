@@ -0,0 +1,156 @@
+package com.chess.engine.board;
+
+import java.util.SplittableRandom;
+
+/**
+ * Constant time attacks of sliding pieces (rook, bishop, queen) with magic bitboards
+ * For each tile, the blockers that matter (relevantOccupancy) are multiplied by a magic number and shifted,
+ * which gives a perfect index into a table of precomputed attack sets: one multiply-shift-index per lookup
+ * Magic numbers are searched once at class init with a fixed seed, so they are the same on every run
+ * Magic bitboards: https://www.chessprogramming.org/Magic_Bitboards
+ * -> No need to initiate the class
+ */
+public final class MagicBitBoards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};        // {row, column}
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] ROOK_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final long[][] BISHOP_ATTACKS = new long[BoardUtils.NUM_TILES][];
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            initMagic(coordinate, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS, random);
+            initMagic(coordinate, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS, random);
+        }
+    }
+
+    private MagicBitBoards() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * @param coordinate tile of the rook
+     * @param occupancy all pieces on the board
+     * @return tiles the rook attacks, including the first blocker of each ray whatever its alliance
+     */
+    public static long rookAttacks(final int coordinate, final long occupancy) {
+        return ROOK_ATTACKS[coordinate][(int) (((occupancy & ROOK_MASKS[coordinate]) * ROOK_MAGICS[coordinate]) >>> ROOK_SHIFTS[coordinate])];
+    }
+
+    /**
+     * @param coordinate tile of the bishop
+     * @param occupancy all pieces on the board
+     * @return tiles the bishop attacks, including the first blocker of each ray whatever its alliance
+     */
+    public static long bishopAttacks(final int coordinate, final long occupancy) {
+        return BISHOP_ATTACKS[coordinate][(int) (((occupancy & BISHOP_MASKS[coordinate]) * BISHOP_MAGICS[coordinate]) >>> BISHOP_SHIFTS[coordinate])];
+    }
+
+    public static long queenAttacks(final int coordinate, final long occupancy) {
+        return rookAttacks(coordinate, occupancy) | bishopAttacks(coordinate, occupancy);
+    }
+
+    /**
+     * Find a magic number for one tile and fill its attack table
+     */
+    private static void initMagic(final int coordinate,
+                                  final int[][] directions,
+                                  final long[] masks,
+                                  final long[] magics,
+                                  final int[] shifts,
+                                  final long[][] attacks,
+                                  final SplittableRandom random) {
+        final long mask = relevantOccupancy(coordinate, directions);
+        final int bits = Long.bitCount(mask);
+        final int size = 1 << bits;
+        final long[] occupancies = new long[size];
+        final long[] referenceAttacks = new long[size];
+        // Carry-Rippler trick: walk every subset of the mask
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            referenceAttacks[i] = slidingAttacks(coordinate, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+        final long[] table = new long[size];
+        final int[] epoch = new int[size];  // Which attempt wrote each slot, avoids clearing the table every try
+        int attempt = 0;
+        while (true) {
+            final long magic = random.nextLong() & random.nextLong() & random.nextLong();   // Sparse numbers make good magics
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            attempt++;
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                final int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = referenceAttacks[i];
+                } else if (table[index] != referenceAttacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                masks[coordinate] = mask;
+                magics[coordinate] = magic;
+                shifts[coordinate] = 64 - bits;
+                attacks[coordinate] = table;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tiles whose occupancy can change the attacks: every ray without its last tile,
+     * since a piece on the edge never blocks anything behind it
+     */
+    private static long relevantOccupancy(final int coordinate, final int[][] directions) {
+        long mask = 0L;
+        for (final int[] direction : directions) {
+            int row = coordinate / BoardUtils.NUM_TILES_PER_ROW + direction[0];
+            int column = coordinate % BoardUtils.NUM_TILES_PER_ROW + direction[1];
+            while (isOnBoard(row + direction[0], column + direction[1])) {
+                mask |= BitBoard.tileMask(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Slow ray walk, only used to fill the tables
+     */
+    private static long slidingAttacks(final int coordinate, final long occupancy, final int[][] directions) {
+        long attacks = 0L;
+        for (final int[] direction : directions) {
+            int row = coordinate / BoardUtils.NUM_TILES_PER_ROW + direction[0];
+            int column = coordinate % BoardUtils.NUM_TILES_PER_ROW + direction[1];
+            while (isOnBoard(row, column)) {
+                final long tile = BitBoard.tileMask(row * BoardUtils.NUM_TILES_PER_ROW + column);
+                attacks |= tile;
+                if ((occupancy & tile) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+}
@@ -1,10 +1,13 @@
 package com.chess.engine.board;
 
+import com.chess.engine.pieces.InstancePromotion;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 
+import java.util.Objects;
+
 import static com.chess.engine.board.Board.*;
 
 public abstract class Move {
@@ -39,23 +42,28 @@ public abstract class Move {
         final int PRIME = 31;
         int result = 1;
         result = PRIME * result + this.destinationCoordinate;
-        result = PRIME * result + this.movedPiece.hashCode();
-        result = PRIME * (isFirstMove ? 1 : 0);
+        result = PRIME * result + Objects.hashCode(this.movedPiece);
+        result = PRIME * result + (isFirstMove ? 1 : 0);
         return result;
     }
 
+    /**
+     * Moves are equal when they are of the same kind (same class), move the same piece and land on the same tile
+     * Subclasses add what else tells them apart (captured piece, castle rook, promoted piece)
+     * Same class on both sides keeps equals symmetric, e.g. a pawn capture never equals an en passant capture
+     */
     @Override
     public boolean equals(final Object other) {
         if (this == other) {
             return true;
         }
-        if (!(other instanceof Move)) {
+        if (other == null || getClass() != other.getClass()) {
             return false;
         }
         final Move otherMove = (Move) other;
-        return this.getDestinationCoordinate() == otherMove.getDestinationCoordinate() &&
-                this.getMovedPiece().equals(otherMove.getMovedPiece());
-
+        return this.getCurrentCoordinate() == otherMove.getCurrentCoordinate() &&
+                this.getDestinationCoordinate() == otherMove.getDestinationCoordinate() &&
+                Objects.equals(this.getMovedPiece(), otherMove.getMovedPiece());
     }
 
     public int getCurrentCoordinate() {
@@ -87,26 +95,51 @@ public abstract class Move {
     }
 
     public Board execute() {
-        final Board.Builder builder = new Board.Builder();
-        // Copy currentPlayer(activePieces - movedPieces) -> builder
-        for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-            if (!this.movedPiece.equals(piece)) {
-                builder.setPiece(piece);
-            }
-        }
-        // Copy: currentPlayer(opponent(activePieces)) -> Builder
-        for (final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-            builder.setPiece(piece);
-        }
+        // Copy every piece of this board, then take the moved piece off its tile
+        final Board.Builder builder = new Board.Builder(this.board);
+        builder.removePiece(this.movedPiece);
         // Make newPiece with destinationCoordinate from movedPiece
         final Piece newPiece = this.movedPiece.makeMovePiece(this);
-        // Add moved piece with new location to builder
+        // Add moved piece with new location to builder, a captured piece on the destination is replaced
         builder.setPiece(newPiece);
         // Switch to other player
         builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+        final int castlingRights = calculateCastlingRights();
+        builder.setCastlingRights(castlingRights);
+        builder.setZobristKey(calculateZobristKey(newPiece, castlingRights, null));
         return builder.build();
     }
 
+    /**
+     * Castling availability after this move, the king or a rook leaving its start tile (or a rook captured on it) drops the castle
+     * @return castling rights of the board this move leads to
+     */
+    protected int calculateCastlingRights() {
+        return Zobrist.updateCastlingRights(this.board.getCastlingRights(), getCurrentCoordinate(), this.destinationCoordinate);
+    }
+
+    /**
+     * Key of the board this move leads to, updated from the key of this board instead of rehashing every piece:
+     * XOR out the moved piece and the captured piece, XOR in the placed piece, then swap castling, en passant and side keys
+     * @param placedPiece piece that lands on the destination
+     * @param nextCastlingRights castling rights after the move
+     * @param nextEnPassantPawn en passant pawn after the move, null if none
+     * @return Zobrist key after the move
+     */
+    protected long calculateZobristKey(final Piece placedPiece,
+                                       final int nextCastlingRights,
+                                       final Pawn nextEnPassantPawn) {
+        long key = this.board.getZobristKey();
+        key ^= Zobrist.pieceKey(this.movedPiece) ^ Zobrist.pieceKey(placedPiece);
+        if (getAttackedPiece() != null) {
+            key ^= Zobrist.pieceKey(getAttackedPiece());
+        }
+        key ^= Zobrist.castlingKey(this.board.getCastlingRights()) ^ Zobrist.castlingKey(nextCastlingRights);
+        key ^= Zobrist.enPassantKey(this.board.getEnPassantPawn()) ^ Zobrist.enPassantKey(nextEnPassantPawn);
+        key ^= Zobrist.switchSideKey();
+        return key;
+    }
+
     public enum MoveStatus {
         DONE {
             @Override
@@ -135,11 +168,6 @@ public abstract class Move {
                         final int destinationCoordinate) {
             super(board, pieceMoved, destinationCoordinate);
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnMove && super.equals(other);
-        }
     }
 
     public static class PawnAttackMove extends AttackMove {
@@ -150,11 +178,6 @@ public abstract class Move {
                               final Piece attackedPiece) {
             super(board, piece, destinationCoordinate, attackedPiece);
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnAttackMove && super.equals(other);
-        }
     }
 
     public static class PawnPromotion extends PawnMove {
@@ -172,23 +195,34 @@ public abstract class Move {
 
         @Override
         public int hashCode() {
-            return decoratedMove.hashCode() + (31 * promotedPawn.hashCode());
+            return this.decoratedMove.hashCode() + (31 * this.promotedPiece.hashCode());
         }
 
         @Override
         public boolean equals(final Object other) {
-            return this == other || other instanceof PawnPromotion && (super.equals(other));
+            return this == other || super.equals(other) &&
+                    this.decoratedMove.equals(((PawnPromotion) other).decoratedMove) &&
+                    this.promotedPiece.equals(((PawnPromotion) other).getPromotedPiece());
         }
 
+        public Piece getPromotedPiece() {
+            return this.promotedPiece;
+        }
+
+        /**
+         * The pawn leaves its tile and the promoted piece lands on the destination (replacing a captured piece),
+         * done in one board instead of executing the decorated pawn move first
+         */
         @Override
         public Board execute() {
-            final Board pawnMovedBoard = this.decoratedMove.execute();
-            final Board.Builder builder = new Builder();
-            pawnMovedBoard.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.promotedPawn.equals(piece)).forEach(builder::setPiece);
-            pawnMovedBoard.getCurrentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
+            final Board.Builder builder = new Builder(this.board);
+            builder.removePiece(this.promotedPawn);
             builder.setPiece(this.promotedPiece);
-            builder.setMoveMaker(pawnMovedBoard.getCurrentPlayer().getAlliance());
+            builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
+            final int castlingRights = calculateCastlingRights();
+            builder.setCastlingRights(castlingRights);
+            builder.setZobristKey(calculateZobristKey(this.promotedPiece, castlingRights, null));
             return builder.build();
         }
 
@@ -207,11 +241,6 @@ public abstract class Move {
         public MajorMove(Board board, Piece piece, int destinationCoordinate) {
             super(board, piece, destinationCoordinate);
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof MajorMove && super.equals(other);
-        }
     }
 
     public static class AttackMove extends Move {
@@ -235,16 +264,16 @@ public abstract class Move {
             if (this == other) {
                 return true;
             }
-            if (!(other instanceof AttackMove)) {
+            if (!super.equals(other)) {
                 return false;
             }
             final AttackMove otherAttackMove = (AttackMove) other;
-            return super.equals(otherAttackMove) && getAttackedPiece().equals(otherAttackMove.getAttackedPiece());
+            return getAttackedPiece().equals(otherAttackMove.getAttackedPiece());
         }
 
         @Override
         public boolean isAttack() {
-            return false;
+            return true;
         }
 
         @Override
@@ -261,13 +290,6 @@ public abstract class Move {
                                final Piece pieceAttacked) {
             super(board, pieceMoved, destinationCoordinate, pieceAttacked);
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof MajorAttackMove && super.equals(other);
-        }
-
-
     }
 
 
@@ -280,30 +302,20 @@ public abstract class Move {
             super(board, piece, destinationCoordinate, attackedPiece);
         }
 
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnEnPassantAttackMove && super.equals(other);
-        }
-
         @Override
         public Board execute() {
-            final Builder builder = new Builder();
-            // Copy CurrentPlayer(ActivePieces minus MovedPiece) into Builder
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-                if (!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            // Copy CurrentPlayer(Opponent(active pieces)) -> builder
-            for (final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
+            // Copy every piece, then take the moved pawn and the captured pawn (beside the destination) off the board
+            final Builder builder = new Builder(this.board);
+            builder.removePiece(this.movedPiece);
+            builder.removePiece(this.getAttackedPiece());
             // Make new MovedPawn with Destination from MovedPieces
             final Pawn movedPawn = (Pawn)this.movedPiece.makeMovePiece(this);
             // copy movedPawn into Builder
             builder.setPiece(movedPawn);
-            builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            final int castlingRights = calculateCastlingRights();
+            builder.setCastlingRights(castlingRights);
+            builder.setZobristKey(calculateZobristKey(movedPawn, castlingRights, null));
             return builder.build();
         }
     }
@@ -315,21 +327,18 @@ public abstract class Move {
             super(board, piece, destinationCoordinate);
         }
 
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnJump && super.equals(other);
-        }
-
         @Override
         public Board execute() {
-            final Board.Builder builder = new Builder();
-            this.board.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.movedPiece.equals(piece)).forEach(builder::setPiece);
-            this.board.getCurrentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
-            final Pawn movedPawn = (Pawn)this.movedPiece;
+            final Board.Builder builder = new Builder(this.board);
+            builder.removePiece(this.movedPiece);
+            final Pawn movedPawn = (Pawn)this.movedPiece.makeMovePiece(this);
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
+            final int castlingRights = calculateCastlingRights();
+            builder.setCastlingRights(castlingRights);
+            builder.setZobristKey(calculateZobristKey(movedPawn, castlingRights, movedPawn));
             return builder.build();
         }
     }
@@ -358,6 +367,10 @@ public abstract class Move {
             return this.castleRook;
         }
 
+        public int getCastleRookDestination() {
+            return this.castleRookDestination;
+        }
+
         @Override
         public boolean isCastlingMove() {
             return true;
@@ -365,21 +378,19 @@ public abstract class Move {
 
         @Override
         public Board execute() {
-            final Builder builder = new Builder();
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece) && !this.castleRook.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for (final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
+            final Builder builder = new Builder(this.board);
+            builder.removePiece(this.movedPiece);
+            builder.removePiece(this.castleRook);
 
             King newKing = (King) this.movedPiece.makeMovePiece(this);
             builder.setPiece(newKing);
-            Rook newRook = new Rook(this.castleRook.getPieceAlliance(), this.castleRookDestination);
+            Rook newRook = InstancePromotion.INSTANCE.getMovedRook(this.castleRook.getPieceAlliance(), this.castleRookDestination);
             builder.setPiece(newRook);
             builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
+            final int castlingRights = calculateCastlingRights();
+            builder.setCastlingRights(castlingRights);
+            builder.setZobristKey(calculateZobristKey(newKing, castlingRights, null) ^
+                    Zobrist.pieceKey(this.castleRook) ^ Zobrist.pieceKey(newRook));
             return builder.build();
         }
 
@@ -397,11 +408,11 @@ public abstract class Move {
             if (this == other) {
                 return true;
             }
-            if (!(other instanceof CastleMove)) {
+            if (!super.equals(other)) {
                 return false;
             }
             final CastleMove otherCastleMove = (CastleMove) other;
-            return super.equals(otherCastleMove) && this.castleRook.equals(otherCastleMove.getCastleRook());
+            return this.castleRook.equals(otherCastleMove.getCastleRook());
         }
     }
 
@@ -419,18 +430,6 @@ public abstract class Move {
         public String toString() {
             return "O-O";
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            if (this == other) {
-                return true;
-            }
-            if (!(other instanceof KingSideCastleMove)) {
-                return false;
-            }
-            final KingSideCastleMove otherKingSideCastleMove = (KingSideCastleMove) other;
-            return super.equals(otherKingSideCastleMove) && this.castleRook.equals(otherKingSideCastleMove.getCastleRook());
-        }
     }
 
     public static final class QueenSideCastleMove extends CastleMove {
@@ -443,18 +442,6 @@ public abstract class Move {
             super(board, pieceMoved, destinationCoordinate, castleRook, castleRookStart, castleRookDestination);
         }
 
-        @Override
-        public boolean equals(final Object other) {
-            if (this == other) {
-                return true;
-            }
-            if (!(other instanceof QueenSideCastleMove)) {
-                return false;
-            }
-            final QueenSideCastleMove otherQueenSideCastleMove = (QueenSideCastleMove) other;
-            return super.equals(otherQueenSideCastleMove) && this.castleRook.equals(otherQueenSideCastleMove.getCastleRook());
-        }
-
         @Override
         public String toString() {
             return "O-O-O";
@@ -493,16 +480,25 @@ public abstract class Move {
             return NULL_MOVE;
         }
 
+        /**
+         * Legal move between two tiles, looked up in the from/to table of the player owning the piece on the first tile
+         * @param board board the move is made on
+         * @param currentCoordinate tile the piece leaves
+         * @param destinationCoordinate tile the piece lands on
+         * @return the legal move (queen promotion for promotions), NULL_MOVE if there is none
+         */
         public static Move createMove(final Board board,
                                       final int currentCoordinate,
                                       final int destinationCoordinate) {
-            for (final Move move : board.getAllLegalMove()) {
-                if (move.getCurrentCoordinate() == currentCoordinate &&
-                        move.getDestinationCoordinate() == destinationCoordinate) {
-                    return move;
-                }
+            if (!BoardUtils.isValidTileCoordinate(currentCoordinate) || !BoardUtils.isValidTileCoordinate(destinationCoordinate)) {
+                return NULL_MOVE;
             }
-            return NULL_MOVE;
+            final Piece movedPiece = board.getPiece(currentCoordinate);
+            if (movedPiece == null) {
+                return NULL_MOVE;
+            }
+            final Move move = board.getPlayer(movedPiece.getPieceAlliance()).getLegalMove(currentCoordinate, destinationCoordinate);
+            return move != null ? move : NULL_MOVE;
         }
     }
 
@@ -0,0 +1,73 @@
+package com.chess.engine.board;
+
+/**
+ * Reusable list of encoded moves (see EncodedMove) backed by an int array
+ * clear() keeps the array, so the same list can be filled again and again without allocating
+ * No position has more than 218 legal moves, MAX_MOVES leaves room for that
+ */
+public final class MoveList {
+
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[MAX_MOVES];
+        this.size = 0;
+    }
+
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public void set(final int index, final int move) {
+        this.moves[index] = move;
+    }
+
+    /**
+     * Swap two moves, used to bring the most promising move to the front
+     */
+    public void swap(final int first, final int second) {
+        final int move = this.moves[first];
+        this.moves[first] = this.moves[second];
+        this.moves[second] = move;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(EncodedMove.toString(this.moves[i]));
+        }
+        return builder.append(']').toString();
+    }
+}
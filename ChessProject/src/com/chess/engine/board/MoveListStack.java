@@ -0,0 +1,33 @@
+package com.chess.engine.board;
+
+/**
+ * One MoveList per ply, allocated up front
+ * A tree walk fills the list of its current ply and recurses, deeper plies use their own lists,
+ * so the moves of every ply on the path stay intact and no list is allocated during the walk
+ */
+public final class MoveListStack {
+
+    private final MoveList[] moveLists;
+
+    /**
+     * @param maxPly deepest ply the walk can reach
+     */
+    public MoveListStack(final int maxPly) {
+        this.moveLists = new MoveList[maxPly + 1];
+        for (int i = 0; i < this.moveLists.length; i++) {
+            this.moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @param ply distance from the root of the walk
+     * @return move list of that ply
+     */
+    public MoveList get(final int ply) {
+        return this.moveLists[ply];
+    }
+
+    public int getMaxPly() {
+        return this.moveLists.length - 1;
+    }
+}
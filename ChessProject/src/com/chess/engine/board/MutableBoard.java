@@ -0,0 +1,356 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.InstancePromotion;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Mutable counterpart of Board for deep tree walks and game replay
+ * Instead of building a new Board for every move (Move.execute), a move is applied in place with makeMove()
+ * and reverted with unmakeMove(), the data needed to revert is kept in an undo record
+ * Board stays the immutable API for the GUI, toBoard() makes a Board snapshot when one is needed
+ *
+ * Two kinds of moves can be made:
+ *  - Move objects, pieces are kept up to date along with the bitboards
+ *  - encoded moves (EncodedMove) from generateLegalMoves(), only bitboards, castling rights and en passant tile change,
+ *    pieces are made again from the bitboards the next time they are asked for
+ * With encoded moves, per ply MoveLists (MoveListStack) and reused undo records, a walk allocates nothing once warmed up
+ * The Zobrist key is kept up to date by XOR-ing the pieces, castling rights, en passant pawn and side a move changes,
+ * the same key Board has for the position, so a walk can key a transposition table or look for repetitions
+ * Make/unmake: https://www.chessprogramming.org/Make_Move
+ *              https://www.chessprogramming.org/Unmake_Move
+ */
+public final class MutableBoard {
+
+    private static final int INITIAL_HISTORY_SIZE = 128;
+
+    private final BitBoard bitBoard;
+    private final Piece[] boardPieces;
+    private boolean isPiecesOutdated;   // Encoded moves only change the bitboards
+    private Alliance moveMaker;
+    private int castlingRights;
+    private int enPassantCoordinate;    // Pawn that can be taken en passant, -1 if none
+    private long zobristKey;
+    private UndoRecord[] history;       // Records are reused, so a walk allocates nothing once the history is deep enough
+    private int historySize;
+    private final LegalMoveGenerator legalMoveGenerator;
+
+    public MutableBoard(final Board board) {
+        this.bitBoard = new BitBoard(board.getBitBoard());
+        this.boardPieces = new Piece[BoardUtils.NUM_TILES];
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            this.boardPieces[i] = board.getPiece(i);
+        }
+        this.isPiecesOutdated = false;
+        this.moveMaker = board.getCurrentPlayer().getAlliance();
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantCoordinate = board.getEnPassantPawn() == null ? -1 : board.getEnPassantPawn().getPiecePosition();
+        this.zobristKey = board.getZobristKey();
+        this.history = new UndoRecord[INITIAL_HISTORY_SIZE];
+        this.historySize = 0;
+        this.legalMoveGenerator = new LegalMoveGenerator();
+    }
+
+    /**
+     * Write the strictly legal moves of the move maker into the list
+     * @param moveList list to fill, cleared first
+     */
+    public void generateLegalMoves(final MoveList moveList) {
+        this.legalMoveGenerator.setPosition(this.bitBoard, this.moveMaker, this.castlingRights, this.enPassantCoordinate)
+                .generateLegalMoves(moveList);
+    }
+
+    /**
+     * Apply the move in place and switch the move maker
+     * Same effect on the position as move.execute(), legality is not checked here
+     * @param move move of the current move maker
+     */
+    public void makeMove(final Move move) {
+        updatePieces();
+        final UndoRecord record = pushRecord();
+        record.move = move;
+        record.previousCastlingRights = this.castlingRights;
+        record.previousEnPassantCoordinate = this.enPassantCoordinate;
+        record.previousZobristKey = this.zobristKey;
+        record.movedPiece = move.getMovedPiece();
+        record.capturedPiece = move.getAttackedPiece();
+        record.castleRook = null;
+
+        if (record.capturedPiece != null) {
+            removePiece(record.capturedPiece);
+        }
+        removePiece(record.movedPiece);
+        record.placedPiece = move instanceof Move.PawnPromotion ?
+                ((Move.PawnPromotion) move).getPromotedPiece() : record.movedPiece.makeMovePiece(move);
+        setPiece(record.placedPiece);
+
+        if (move.isCastlingMove()) {
+            final Move.CastleMove castleMove = (Move.CastleMove) move;
+            record.castleRook = castleMove.getCastleRook();
+            removePiece(record.castleRook);
+            record.placedCastleRook = InstancePromotion.INSTANCE.getMovedRook(record.castleRook.getPieceAlliance(),
+                    castleMove.getCastleRookDestination());
+            setPiece(record.placedCastleRook);
+        }
+
+        updateState(Zobrist.updateCastlingRights(this.castlingRights, move.getCurrentCoordinate(), move.getDestinationCoordinate()),
+                move instanceof Move.PawnJump ? move.getDestinationCoordinate() : -1);
+    }
+
+    /**
+     * Apply an encoded move in place and switch the move maker, only the bitboards change
+     * Legality is not checked here, the move should come from generateLegalMoves() on this position
+     * @param move encoded move of the current move maker
+     */
+    public void makeMove(final int move) {
+        final UndoRecord record = pushRecord();
+        final int currentCoordinate = EncodedMove.getCurrentCoordinate(move);
+        final int destinationCoordinate = EncodedMove.getDestinationCoordinate(move);
+        final Alliance opponent = this.moveMaker.opposite();
+        record.move = null;
+        record.encodedMove = move;
+        record.previousCastlingRights = this.castlingRights;
+        record.previousEnPassantCoordinate = this.enPassantCoordinate;
+        record.previousZobristKey = this.zobristKey;
+        record.movedPieceType = this.bitBoard.getPieceTypeAt(currentCoordinate);
+        record.capturedPieceType = null;
+
+        if (EncodedMove.isEnPassant(move)) {
+            record.capturedPieceType = PieceType.PAWN;
+            removeKeyedPiece(opponent, PieceType.PAWN, this.enPassantCoordinate);
+        } else if (EncodedMove.isCapture(move)) {
+            record.capturedPieceType = this.bitBoard.getPieceTypeAt(destinationCoordinate);
+            removeKeyedPiece(opponent, record.capturedPieceType, destinationCoordinate);
+        }
+        removeKeyedPiece(this.moveMaker, record.movedPieceType, currentCoordinate);
+        setKeyedPiece(this.moveMaker, EncodedMove.isPromotion(move) ?
+                EncodedMove.getPromotionType(move) : record.movedPieceType, destinationCoordinate);
+        if (EncodedMove.isCastle(move)) {
+            final int rookStart = castleRookStart(move);
+            final int rookDestination = castleRookDestination(move);
+            removeKeyedPiece(this.moveMaker, PieceType.ROOK, rookStart);
+            setKeyedPiece(this.moveMaker, PieceType.ROOK, rookDestination);
+        }
+
+        updateState(Zobrist.updateCastlingRights(this.castlingRights, currentCoordinate, destinationCoordinate),
+                EncodedMove.getFlags(move) == EncodedMove.DOUBLE_PAWN_PUSH ? destinationCoordinate : -1);
+        this.isPiecesOutdated = true;
+    }
+
+    /**
+     * Revert the last move made with makeMove()
+     * @return the move that was reverted, null if it was an encoded move
+     */
+    public Move unmakeMove() {
+        if (this.historySize == 0) {
+            throw new RuntimeException("No move to unmake");
+        }
+        final UndoRecord record = this.history[--this.historySize];
+        this.moveMaker = this.moveMaker.opposite();
+        this.castlingRights = record.previousCastlingRights;
+        this.enPassantCoordinate = record.previousEnPassantCoordinate;
+        final Move move = record.move;
+        if (move == null) {
+            unmakeEncodedMove(record.encodedMove, record.movedPieceType, record.capturedPieceType);
+            this.zobristKey = record.previousZobristKey;
+            return null;
+        }
+        updatePieces();
+        if (record.castleRook != null) {
+            removePiece(record.placedCastleRook);
+            setPiece(record.castleRook);
+        }
+        removePiece(record.placedPiece);
+        setPiece(record.movedPiece);
+        if (record.capturedPiece != null) {
+            setPiece(record.capturedPiece);
+        }
+        // The piece updates above XOR the key as well, the saved key replaces it afterwards
+        this.zobristKey = record.previousZobristKey;
+        record.clear();
+        return move;
+    }
+
+    /**
+     * Put the bitboards back as they were before the encoded move, state fields are already restored
+     */
+    private void unmakeEncodedMove(final int move, final PieceType movedPieceType, final PieceType capturedPieceType) {
+        final int currentCoordinate = EncodedMove.getCurrentCoordinate(move);
+        final int destinationCoordinate = EncodedMove.getDestinationCoordinate(move);
+        if (EncodedMove.isCastle(move)) {
+            this.bitBoard.removePiece(this.moveMaker, PieceType.ROOK, castleRookDestination(move));
+            this.bitBoard.setPiece(this.moveMaker, PieceType.ROOK, castleRookStart(move));
+        }
+        this.bitBoard.removePiece(this.moveMaker, EncodedMove.isPromotion(move) ?
+                EncodedMove.getPromotionType(move) : movedPieceType, destinationCoordinate);
+        this.bitBoard.setPiece(this.moveMaker, movedPieceType, currentCoordinate);
+        if (capturedPieceType != null) {
+            this.bitBoard.setPiece(this.moveMaker.opposite(), capturedPieceType,
+                    EncodedMove.isEnPassant(move) ? this.enPassantCoordinate : destinationCoordinate);
+        }
+        this.isPiecesOutdated = true;
+    }
+
+    /**
+     * Rook of an encoded castle: king side rook goes from 3 tiles right of the king to 1, queen side from 4 left to 1
+     */
+    private static int castleRookStart(final int move) {
+        final int kingCoordinate = EncodedMove.getCurrentCoordinate(move);
+        return EncodedMove.getFlags(move) == EncodedMove.KING_CASTLE ? kingCoordinate + 3 : kingCoordinate - 4;
+    }
+
+    private static int castleRookDestination(final int move) {
+        final int kingCoordinate = EncodedMove.getCurrentCoordinate(move);
+        return EncodedMove.getFlags(move) == EncodedMove.KING_CASTLE ? kingCoordinate + 1 : kingCoordinate - 1;
+    }
+
+    /**
+     * Castling rights and en passant pawn after a move, their keys and the side key swapped in, the move maker switched
+     */
+    private void updateState(final int nextCastlingRights,
+                             final int nextEnPassantCoordinate) {
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.castlingKey(nextCastlingRights) ^
+                Zobrist.enPassantKey(this.enPassantCoordinate) ^ Zobrist.enPassantKey(nextEnPassantCoordinate) ^
+                Zobrist.switchSideKey();
+        this.castlingRights = nextCastlingRights;
+        this.enPassantCoordinate = nextEnPassantCoordinate;
+        this.moveMaker = this.moveMaker.opposite();
+    }
+
+    /**
+     * Immutable snapshot of the current position
+     * @return new Board with the same pieces, move maker, castling rights and en passant pawn
+     */
+    public Board toBoard() {
+        updatePieces();
+        final Board.Builder builder = new Board.Builder();
+        long pieces = this.bitBoard.getOccupancy();
+        while (pieces != 0) {
+            builder.setPiece(this.boardPieces[Long.numberOfTrailingZeros(pieces)]);
+            pieces &= pieces - 1;
+        }
+        builder.setMoveMaker(this.moveMaker);
+        builder.setEnPassantPawn(getEnPassantPawn());
+        builder.setCastlingRights(this.castlingRights);
+        builder.setZobristKey(this.zobristKey);
+        return builder.build();
+    }
+
+    public Piece getPiece(final int coordinate) {
+        updatePieces();
+        return this.boardPieces[coordinate];
+    }
+
+    public boolean isTileOccupied(final int coordinate) {
+        return this.bitBoard.isTileOccupied(coordinate);
+    }
+
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    public Alliance getMoveMaker() {
+        return this.moveMaker;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public Pawn getEnPassantPawn() {
+        return this.enPassantCoordinate == -1 ? null : (Pawn) getPiece(this.enPassantCoordinate);
+    }
+
+    /**
+     * @return Zobrist key of the current position, equal to the key of toBoard()
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    public int getPly() {
+        return this.historySize;
+    }
+
+    /**
+     * Make the pieces again from the bitboards after encoded moves, first move flags come from the position
+     */
+    private void updatePieces() {
+        if (!this.isPiecesOutdated) {
+            return;
+        }
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Alliance alliance = this.bitBoard.getAllianceAt(i);
+            this.boardPieces[i] = alliance == null ? null :
+                    FenUtilities.createPiece(alliance, this.bitBoard.getPieceTypeAt(i), i, this.castlingRights);
+        }
+        this.isPiecesOutdated = false;
+    }
+
+    /**
+     * Set and remove pieces, updating the Zobrist key with them
+     */
+    private void setPiece(final Piece piece) {
+        setKeyedPiece(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+        this.boardPieces[piece.getPiecePosition()] = piece;
+    }
+
+    private void removePiece(final Piece piece) {
+        removeKeyedPiece(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+        this.boardPieces[piece.getPiecePosition()] = null;
+    }
+
+    private void setKeyedPiece(final Alliance alliance, final PieceType pieceType, final int coordinate) {
+        this.bitBoard.setPiece(alliance, pieceType, coordinate);
+        this.zobristKey ^= Zobrist.pieceKey(alliance, pieceType, coordinate);
+    }
+
+    private void removeKeyedPiece(final Alliance alliance, final PieceType pieceType, final int coordinate) {
+        this.bitBoard.removePiece(alliance, pieceType, coordinate);
+        this.zobristKey ^= Zobrist.pieceKey(alliance, pieceType, coordinate);
+    }
+
+    private UndoRecord pushRecord() {
+        if (this.historySize == this.history.length) {
+            final UndoRecord[] grown = new UndoRecord[this.history.length * 2];
+            System.arraycopy(this.history, 0, grown, 0, this.history.length);
+            this.history = grown;
+        }
+        UndoRecord record = this.history[this.historySize];
+        if (record == null) {
+            record = new UndoRecord();
+            this.history[this.historySize] = record;
+        }
+        this.historySize++;
+        return record;
+    }
+
+    /**
+     * Everything makeMove() changes that cannot be worked out again from the move itself
+     */
+    private static final class UndoRecord {
+        Move move;                  // null for an encoded move
+        Piece movedPiece;           // Piece before the move
+        Piece placedPiece;          // Piece put on the destination (moved or promoted piece)
+        Piece capturedPiece;
+        Piece castleRook;           // Rook before castling, null if the move is not a castle
+        Piece placedCastleRook;
+        int encodedMove;
+        PieceType movedPieceType;
+        PieceType capturedPieceType;
+        int previousCastlingRights;
+        int previousEnPassantCoordinate;
+        long previousZobristKey;
+
+        void clear() {
+            this.move = null;
+            this.movedPiece = null;
+            this.placedPiece = null;
+            this.capturedPiece = null;
+            this.castleRook = null;
+            this.placedCastleRook = null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Pawn structure terms of the evaluation, packed middlegame and endgame like PieceSquareTables, white minus black
+ *  - doubled: a pawn with a pawn of its own side in front of it on the same file
+ *  - isolated: no pawn of its own side on the files next to it
+ *  - backward: the pawns of its own side on the files next to it are all ahead of it and an enemy pawn guards
+ *    the tile in front of it, so it cannot move up to them
+ *  - passed: no enemy pawn in front of it on its file or the files next to it, worth more the further it got
+ * evaluate() only depends on the pawns, the evaluation caches it by BitBoard.getPawnKey() (see PawnHashTable)
+ * The king pawn shield depends on the king tile too, it is a few mask lookups and is not cached
+ * Pawn structure: https://www.chessprogramming.org/Pawn_Structure
+ * -> No need to initiate the class
+ */
+public final class PawnStructure {
+
+    private static final int DOUBLED = PieceSquareTables.pack(-10, -25);
+    private static final int ISOLATED = PieceSquareTables.pack(-10, -15);
+    private static final int BACKWARD = PieceSquareTables.pack(-8, -10);
+    private static final int[] PASSED = {       // [rank from the pawn's own side, 0 = first rank]
+            0,
+            PieceSquareTables.pack(0, 0),
+            PieceSquareTables.pack(5, 10),
+            PieceSquareTables.pack(10, 15),
+            PieceSquareTables.pack(20, 35),
+            PieceSquareTables.pack(40, 65),
+            PieceSquareTables.pack(65, 110),
+            0};
+    private static final int SHIELD_NEAR = PieceSquareTables.pack(12, 0);   // Shield pawns only matter in the middlegame
+    private static final int SHIELD_FAR = PieceSquareTables.pack(6, 0);
+
+    private static final long FIRST_FILE = 0x0101010101010101L;
+    private static final long[] ADJACENT_FILES = initAdjacentFiles();     // [file]
+    private static final long[][] FILE_FRONT_SPANS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+    private static final long[][] PASSED_MASKS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+    private static final long[][] SUPPORT_MASKS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+    private static final long[][] SHIELD_NEAR_MASKS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+    private static final long[][] SHIELD_FAR_MASKS = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+
+    static {
+        initMasks();
+    }
+
+    private PawnStructure() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * @param bitBoard position to evaluate
+     * @return doubled, isolated, backward and passed pawn terms, packed, white minus black
+     */
+    public static int evaluate(final BitBoard bitBoard) {
+        final long whitePawns = bitBoard.getPieces(Alliance.WHITE, PieceType.PAWN);
+        final long blackPawns = bitBoard.getPieces(Alliance.BLACK, PieceType.PAWN);
+        return evaluate(Alliance.WHITE, whitePawns, blackPawns) - evaluate(Alliance.BLACK, blackPawns, whitePawns);
+    }
+
+    /**
+     * @param bitBoard position to evaluate
+     * @return pawns in front of each king, packed, white minus black
+     */
+    public static int kingShield(final BitBoard bitBoard) {
+        return kingShield(bitBoard, Alliance.WHITE) - kingShield(bitBoard, Alliance.BLACK);
+    }
+
+    private static int evaluate(final Alliance alliance,
+                                final long ownPawns,
+                                final long enemyPawns) {
+        final int side = alliance.ordinal();
+        int score = 0;
+        long pawns = ownPawns;
+        while (pawns != 0) {
+            final int coordinate = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final long adjacentPawns = ownPawns & ADJACENT_FILES[coordinate % BoardUtils.NUM_TILES_PER_ROW];
+            final boolean doubled = (ownPawns & FILE_FRONT_SPANS[side][coordinate]) != 0;
+            if (doubled) {
+                score += DOUBLED;
+            }
+            if (adjacentPawns == 0) {
+                score += ISOLATED;
+            } else if ((adjacentPawns & SUPPORT_MASKS[side][coordinate]) == 0) {
+                final int stopCoordinate = coordinate + alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+                if ((Pawn.getAttackMask(alliance, stopCoordinate) & enemyPawns) != 0) {
+                    score += BACKWARD;
+                }
+            }
+            if (!doubled && (enemyPawns & PASSED_MASKS[side][coordinate]) == 0) {
+                score += PASSED[relativeRank(alliance, coordinate)];
+            }
+        }
+        return score;
+    }
+
+    private static int kingShield(final BitBoard bitBoard,
+                                  final Alliance alliance) {
+        final int kingCoordinate = bitBoard.getKingCoordinate(alliance);
+        if (kingCoordinate < 0 || relativeRank(alliance, kingCoordinate) > 1) {
+            return 0;       // A king that left its back ranks has no shield to keep
+        }
+        final long pawns = bitBoard.getPieces(alliance, PieceType.PAWN);
+        final int side = alliance.ordinal();
+        return Long.bitCount(pawns & SHIELD_NEAR_MASKS[side][kingCoordinate]) * SHIELD_NEAR +
+                Long.bitCount(pawns & SHIELD_FAR_MASKS[side][kingCoordinate]) * SHIELD_FAR;
+    }
+
+    /**
+     * @return rank of the tile counted from the alliance's own side, 0 = its first rank
+     */
+    private static int relativeRank(final Alliance alliance,
+                                    final int coordinate) {
+        final int row = coordinate / BoardUtils.NUM_TILES_PER_ROW;
+        return alliance.isWhite() ? BoardUtils.NUM_TILES_PER_ROW - 1 - row : row;
+    }
+
+    private static long[] initAdjacentFiles() {
+        final long[] adjacentFiles = new long[BoardUtils.NUM_TILES_PER_ROW];
+        for (int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+            if (file > 0) {
+                adjacentFiles[file] |= FIRST_FILE << (file - 1);
+            }
+            if (file < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                adjacentFiles[file] |= FIRST_FILE << (file + 1);
+            }
+        }
+        return adjacentFiles;
+    }
+
+    private static void initMasks() {
+        for (final Alliance alliance : Alliance.values()) {
+            final int side = alliance.ordinal();
+            for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+                final int file = coordinate % BoardUtils.NUM_TILES_PER_ROW;
+                final int rank = relativeRank(alliance, coordinate);
+                final long fileMask = FIRST_FILE << file;
+                final long neighbourMask = fileMask | ADJACENT_FILES[file];
+                for (int other = 0; other < BoardUtils.NUM_TILES; other++) {
+                    final long otherMask = BitBoard.tileMask(other);
+                    final int otherRank = relativeRank(alliance, other);
+                    if (otherRank > rank) {
+                        FILE_FRONT_SPANS[side][coordinate] |= otherMask & fileMask;
+                        PASSED_MASKS[side][coordinate] |= otherMask & neighbourMask;
+                    } else {
+                        SUPPORT_MASKS[side][coordinate] |= otherMask & ADJACENT_FILES[file];
+                    }
+                    if (otherRank == rank + 1) {
+                        SHIELD_NEAR_MASKS[side][coordinate] |= otherMask & neighbourMask;
+                    } else if (otherRank == rank + 2) {
+                        SHIELD_FAR_MASKS[side][coordinate] |= otherMask & neighbourMask;
+                    }
+                }
+            }
+        }
+    }
+}
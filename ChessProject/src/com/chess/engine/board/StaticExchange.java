@@ -0,0 +1,156 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Static exchange evaluation (SEE): material won or lost by a move when both sides keep capturing on its
+ * destination tile with their least valuable attacker, and either side may stop when going on would lose more
+ * Worked out on the bitboards alone, no Board is made, pieces behind a slider join in when it captures (x-rays)
+ * Pins and checks are ignored, a king only captures when the other side has no attacker left
+ * Used by the search to skip losing captures and by analysis tools to tell whether a piece hangs
+ * The search passes its own swap list (newSwapList(), one per search thread) so the calls on its hot path do not allocate
+ * SEE: https://www.chessprogramming.org/Static_Exchange_Evaluation
+ *      https://www.chessprogramming.org/SEE_-_The_Swap_Algorithm
+ * -> No need to initiate the class
+ */
+public final class StaticExchange {
+
+    private static final int MAX_EXCHANGES = 32;    // Every piece of the board takes part at most once
+
+    private static final PieceType[] LEAST_VALUABLE_FIRST = {PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP,
+            PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+
+    private StaticExchange() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * @return swap list to pass to evaluate(Move, int[]), not to be shared between threads
+     */
+    public static int[] newSwapList() {
+        return new int[MAX_EXCHANGES];
+    }
+
+    /**
+     * @param move move to evaluate, usually a capture
+     * @return centipawns won by the side making the move, negative if the exchange loses material
+     */
+    public static int evaluate(final Move move) {
+        return evaluate(move, newSwapList());
+    }
+
+    /**
+     * Same as evaluate(Move) without allocating
+     * @param move move to evaluate, usually a capture
+     * @param swapList scratch space of newSwapList(), its content is overwritten
+     * @return centipawns won by the side making the move, negative if the exchange loses material
+     */
+    public static int evaluate(final Move move,
+                               final int[] swapList) {
+        final PieceType promotionType = move instanceof Move.PawnPromotion ?
+                ((Move.PawnPromotion) move).getPromotedPiece().getPieceType() : null;
+        return evaluate(move.getBoard(), move.getCurrentCoordinate(), move.getDestinationCoordinate(), promotionType,
+                swapList);
+    }
+
+    /**
+     * Evaluate a move given by its tiles, a pawn reaching the last rank is taken to become a queen
+     * @param board board the move is made on
+     * @param currentCoordinate tile of the moving piece
+     * @param destinationCoordinate tile the piece moves to
+     * @return centipawns won by the side making the move, negative if the exchange loses material
+     */
+    public static int evaluate(final Board board,
+                               final int currentCoordinate,
+                               final int destinationCoordinate) {
+        return evaluate(board, currentCoordinate, destinationCoordinate, PieceType.QUEEN, newSwapList());
+    }
+
+    private static int evaluate(final Board board,
+                                final int currentCoordinate,
+                                final int destinationCoordinate,
+                                final PieceType promotionType,
+                                final int[] swapList) {
+        final BitBoard bitBoard = board.getBitBoard();
+        final PieceType movedType = bitBoard.getPieceTypeAt(currentCoordinate);
+        if (movedType == null) {
+            throw new RuntimeException("No piece to move on " + BoardUtils.getPositionAtCoordinate(currentCoordinate));
+        }
+        final Alliance alliance = bitBoard.getAllianceAt(currentCoordinate);
+        long occupancy = bitBoard.getOccupancy() & ~BitBoard.tileMask(currentCoordinate);
+
+        final PieceType capturedType = bitBoard.getPieceTypeAt(destinationCoordinate);
+        int captured = capturedType == null ? 0 : capturedType.getPieceValue();
+        int movedValue = movedType.getPieceValue();
+        if (movedType == PieceType.PAWN) {
+            if (capturedType == null &&
+                    currentCoordinate % BoardUtils.NUM_TILES_PER_ROW != destinationCoordinate % BoardUtils.NUM_TILES_PER_ROW) {
+                // En passant, the captured pawn is behind the destination tile
+                occupancy &= ~BitBoard.tileMask(destinationCoordinate - alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW);
+                captured = PieceType.PAWN.getPieceValue();
+            }
+            if (promotionType != null && alliance.isPromotionTile(destinationCoordinate)) {
+                captured += promotionType.getPieceValue() - PieceType.PAWN.getPieceValue();
+                movedValue = promotionType.getPieceValue();
+            }
+        }
+        return exchange(bitBoard, destinationCoordinate, alliance.opposite(), occupancy, captured, movedValue, swapList);
+    }
+
+    /**
+     * Swap algorithm: gain[d] is what the side capturing at step d is up if the exchange stops after it,
+     * walked back from the end each side takes the better of capturing or standing pat
+     */
+    private static int exchange(final BitBoard bitBoard,
+                                final int coordinate,
+                                final Alliance firstRecapture,
+                                final long startOccupancy,
+                                final int captured,
+                                final int movedValue,
+                                final int[] gain) {
+        int depth = 0;
+        gain[0] = captured;
+        long occupancy = startOccupancy;
+        long attackers = attackersOf(bitBoard, coordinate, occupancy);
+        Alliance side = firstRecapture;
+        int pieceOnTile = movedValue;
+        while (depth < MAX_EXCHANGES - 1) {
+            final long sideAttackers = attackers & bitBoard.getAlliancePieces(side);
+            if (sideAttackers == 0) {
+                break;
+            }
+            PieceType attackerType = null;
+            long attackerMask = 0L;
+            for (final PieceType pieceType : LEAST_VALUABLE_FIRST) {
+                final long pieces = sideAttackers & bitBoard.getPieces(side, pieceType);
+                if (pieces != 0) {
+                    attackerType = pieceType;
+                    attackerMask = Long.lowestOneBit(pieces);
+                    break;
+                }
+            }
+            if (attackerType == PieceType.KING && (attackers & bitBoard.getAlliancePieces(side.opposite())) != 0) {
+                break;      // The king cannot capture on a defended tile
+            }
+            depth++;
+            gain[depth] = pieceOnTile - gain[depth - 1];
+            occupancy &= ~attackerMask;
+            attackers = attackersOf(bitBoard, coordinate, occupancy);   // Uncovers x-ray attackers behind the piece
+            pieceOnTile = attackerType.getPieceValue();
+            side = side.opposite();
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    private static long attackersOf(final BitBoard bitBoard,
+                                    final int coordinate,
+                                    final long occupancy) {
+        return (bitBoard.getAttackers(coordinate, Alliance.WHITE, occupancy) |
+                bitBoard.getAttackers(coordinate, Alliance.BLACK, occupancy)) & occupancy;
+    }
+}
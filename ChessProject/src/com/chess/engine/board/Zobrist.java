@@ -0,0 +1,169 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hashing: a 64 bit key for a position made by XOR-ing one random number per
+ * (alliance, piece type, tile), plus side to move, castling availability and en passant pawn
+ * Since XOR undoes itself, a move updates the key by XOR-ing out what it removes and XOR-ing in what it adds
+ * Zobrist hashing: https://www.chessprogramming.org/Zobrist_Hashing
+ * -> No need to initiate the class
+ */
+public final class Zobrist {
+
+    /**
+     * Castling availability bits, a board keeps the combination of them in castlingRights
+     */
+    public static final int WHITE_KING_SIDE = 1, WHITE_QUEEN_SIDE = 2, BLACK_KING_SIDE = 4, BLACK_QUEEN_SIDE = 8,
+            NO_CASTLING = 0, ALL_CASTLING = 15;
+
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long[][][] PIECE_KEYS;     // [alliance][piece type][tile]
+    private static final long[] CASTLING_KEYS;      // [castling rights]
+    private static final long[] EN_PASSANT_KEYS;    // [column of en passant pawn]
+    private static final long BLACK_TO_MOVE_KEY;
+
+    /**
+     * Castling availability kept after a piece leaves or lands on a tile
+     * Moving the king or a rook off its start tile, or capturing a rook on it, removes the matching castle
+     */
+    private static final int[] CASTLING_MASK = initCastlingMask();
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        PIECE_KEYS = new long[Alliance.values().length][PieceType.values().length][BoardUtils.NUM_TILES];
+        for (final long[][] allianceKeys : PIECE_KEYS) {
+            for (final long[] pieceTypeKeys : allianceKeys) {
+                for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                    pieceTypeKeys[i] = random.nextLong();
+                }
+            }
+        }
+        CASTLING_KEYS = new long[ALL_CASTLING + 1];
+        for (int i = 1; i < CASTLING_KEYS.length; i++) {    // No castling hashes to 0
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES_PER_ROW];
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    private static int[] initCastlingMask() {
+        final int[] mask = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(mask, ALL_CASTLING);
+        mask[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        mask[63] &= ~WHITE_KING_SIDE;
+        mask[56] &= ~WHITE_QUEEN_SIDE;
+        mask[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        mask[7] &= ~BLACK_KING_SIDE;
+        mask[0] &= ~BLACK_QUEEN_SIDE;
+        return mask;
+    }
+
+    public static long pieceKey(final Alliance alliance, final PieceType pieceType, final int coordinate) {
+        return PIECE_KEYS[alliance.ordinal()][pieceType.ordinal()][coordinate];
+    }
+
+    public static long pieceKey(final Piece piece) {
+        return pieceKey(piece.getPieceAlliance(), piece.getPieceType(), piece.getPiecePosition());
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final Pawn enPassantPawn) {
+        return enPassantPawn == null ? 0L : enPassantKey(enPassantPawn.getPiecePosition());
+    }
+
+    /**
+     * @param enPassantCoordinate tile of the pawn that can be taken en passant, -1 if none
+     */
+    public static long enPassantKey(final int enPassantCoordinate) {
+        return enPassantCoordinate == -1 ? 0L : EN_PASSANT_KEYS[enPassantCoordinate % BoardUtils.NUM_TILES_PER_ROW];
+    }
+
+    public static long sideKey(final Alliance moveMaker) {
+        return moveMaker.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    /**
+     * XOR of a side-to-move switch, used by every move
+     * @return key to XOR in when the move maker changes
+     */
+    public static long switchSideKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+
+    /**
+     * @param castlingRights castling availability before the move
+     * @param currentCoordinate tile the moved piece leaves
+     * @param destinationCoordinate tile the moved piece lands on
+     * @return castling availability after the move
+     */
+    public static int updateCastlingRights(final int castlingRights,
+                                           final int currentCoordinate,
+                                           final int destinationCoordinate) {
+        return castlingRights & CASTLING_MASK[currentCoordinate] & CASTLING_MASK[destinationCoordinate];
+    }
+
+    /**
+     * Castling availability of a freshly set up board, read from the kings and rooks that have not moved yet
+     * @param board board to look at
+     * @return combination of the castling bits
+     */
+    static int calculateCastlingRights(final Board board) {
+        int castlingRights = NO_CASTLING;
+        if (isUnmoved(board.getPiece(60), PieceType.KING)) {
+            if (isUnmoved(board.getPiece(63), PieceType.ROOK)) {
+                castlingRights |= WHITE_KING_SIDE;
+            }
+            if (isUnmoved(board.getPiece(56), PieceType.ROOK)) {
+                castlingRights |= WHITE_QUEEN_SIDE;
+            }
+        }
+        if (isUnmoved(board.getPiece(4), PieceType.KING)) {
+            if (isUnmoved(board.getPiece(7), PieceType.ROOK)) {
+                castlingRights |= BLACK_KING_SIDE;
+            }
+            if (isUnmoved(board.getPiece(0), PieceType.ROOK)) {
+                castlingRights |= BLACK_QUEEN_SIDE;
+            }
+        }
+        return castlingRights;
+    }
+
+    private static boolean isUnmoved(final Piece piece, final PieceType pieceType) {
+        return piece != null && piece.getPieceType() == pieceType && piece.isFirstMove();
+    }
+
+    /**
+     * Hash the whole board from scratch, only used when a board is set up without a parent board
+     * @param board board to hash
+     * @return Zobrist key of the board
+     */
+    static long calculateKey(final Board board) {
+        long key = 0L;
+        long pieces = board.getBitBoard().getOccupancy();
+        while (pieces != 0) {
+            key ^= pieceKey(board.getPiece(Long.numberOfTrailingZeros(pieces)));
+            pieces &= pieces - 1;
+        }
+        key ^= castlingKey(board.getCastlingRights());
+        key ^= enPassantKey(board.getEnPassantPawn());
+        key ^= sideKey(board.getCurrentPlayer().getAlliance());
+        return key;
+    }
+}
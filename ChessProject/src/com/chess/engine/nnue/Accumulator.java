@@ -0,0 +1,156 @@
+package com.chess.engine.nnue;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Hidden layer of a Network for one position, from both perspectives: feature biases plus the feature weights
+ * of every piece on the board
+ * Positions do not carry accumulators, the evaluator keeps its own (see NnueEvaluator) and moves one from a position
+ * to the next with update(): the pieces that differ between the two bitboards are subtracted and added, for a move
+ * that is 2 to 4 pieces instead of all of them
+ * Values are shorts with wrapping arithmetic, adding a piece and removing it again gives back the exact same values
+ */
+public final class Accumulator {
+
+    private static final Alliance[] ALLIANCES = Alliance.values();        // values() copies the array on every call
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final Network network;
+    private final short[][] values;     // [perspective alliance][neuron]
+
+    /**
+     * Accumulator of an empty board, the feature biases only
+     * @param network network the accumulator belongs to
+     */
+    public Accumulator(final Network network) {
+        this.network = network;
+        this.values = new short[ALLIANCES.length][];
+        for (final Alliance perspective : ALLIANCES) {
+            this.values[perspective.ordinal()] = network.getFeatureBiases().clone();
+        }
+    }
+
+    /**
+     * Calculate the accumulator of a position from scratch
+     * @param network network the accumulator belongs to
+     * @param bitBoard position
+     */
+    public Accumulator(final Network network,
+                       final BitBoard bitBoard) {
+        this(network);
+        addPieces(bitBoard);
+    }
+
+    /**
+     * Calculate the values again from scratch for another position
+     * @param bitBoard position
+     */
+    public void refresh(final BitBoard bitBoard) {
+        final short[] featureBiases = this.network.getFeatureBiases();
+        for (final short[] perspectiveValues : this.values) {
+            System.arraycopy(featureBiases, 0, perspectiveValues, 0, featureBiases.length);
+        }
+        addPieces(bitBoard);
+    }
+
+    /**
+     * @param other accumulator of the same network to take the values of
+     */
+    public void copyFrom(final Accumulator other) {
+        for (int i = 0; i < this.values.length; i++) {
+            System.arraycopy(other.values[i], 0, this.values[i], 0, this.values[i].length);
+        }
+    }
+
+    /**
+     * Move the accumulator from one position to another: pieces only in the first are removed, pieces only in the
+     * second added, cheap when the positions are a few moves apart
+     * @param from position the accumulator holds now
+     * @param to position it is to hold
+     */
+    public void update(final BitBoard from,
+                       final BitBoard to) {
+        for (final Alliance alliance : ALLIANCES) {
+            for (final PieceType pieceType : PIECE_TYPES) {
+                final long fromPieces = from.getPieces(alliance, pieceType);
+                final long toPieces = to.getPieces(alliance, pieceType);
+                for (long removed = fromPieces & ~toPieces; removed != 0; removed &= removed - 1) {
+                    removePiece(alliance, pieceType, Long.numberOfTrailingZeros(removed));
+                }
+                for (long added = toPieces & ~fromPieces; added != 0; added &= added - 1) {
+                    addPiece(alliance, pieceType, Long.numberOfTrailingZeros(added));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of pieces update(from, to) would add and remove
+     */
+    public static int countChanges(final BitBoard from,
+                                   final BitBoard to) {
+        int changes = 0;
+        for (final Alliance alliance : ALLIANCES) {
+            for (final PieceType pieceType : PIECE_TYPES) {
+                changes += Long.bitCount(from.getPieces(alliance, pieceType) ^ to.getPieces(alliance, pieceType));
+            }
+        }
+        return changes;
+    }
+
+    private void addPieces(final BitBoard bitBoard) {
+        for (final Alliance alliance : ALLIANCES) {
+            for (final PieceType pieceType : PIECE_TYPES) {
+                for (long pieces = bitBoard.getPieces(alliance, pieceType); pieces != 0; pieces &= pieces - 1) {
+                    addPiece(alliance, pieceType, Long.numberOfTrailingZeros(pieces));
+                }
+            }
+        }
+    }
+
+    public Network getNetwork() {
+        return this.network;
+    }
+
+    public void addPiece(final Alliance alliance,
+                         final PieceType pieceType,
+                         final int coordinate) {
+        final int hiddenSize = this.network.getHiddenSize();
+        final short[] weights = this.network.getFeatureWeights();
+        for (final Alliance perspective : ALLIANCES) {
+            Kernels.add(this.values[perspective.ordinal()], weights,
+                    Network.featureIndex(perspective, alliance, pieceType, coordinate) * hiddenSize);
+        }
+    }
+
+    public void removePiece(final Alliance alliance,
+                            final PieceType pieceType,
+                            final int coordinate) {
+        final int hiddenSize = this.network.getHiddenSize();
+        final short[] weights = this.network.getFeatureWeights();
+        for (final Alliance perspective : ALLIANCES) {
+            Kernels.subtract(this.values[perspective.ordinal()], weights,
+                    Network.featureIndex(perspective, alliance, pieceType, coordinate) * hiddenSize);
+        }
+    }
+
+    short[] getValues(final Alliance perspective) {
+        return this.values[perspective.ordinal()];
+    }
+
+    /**
+     * @return true if both accumulators hold the same values, to check incremental updates against a refresh
+     */
+    public boolean sameValues(final Accumulator other) {
+        for (int i = 0; i < this.values.length; i++) {
+            if (!Arrays.equals(this.values[i], other.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
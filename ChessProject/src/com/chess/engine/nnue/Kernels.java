@@ -0,0 +1,102 @@
+package com.chess.engine.nnue;
+
+/**
+ * Inner loops of the network over the hidden neurons
+ * SIMD through the JDK Vector API (VectorKernels, source root simd/src) when the jdk.incubator.vector module and the
+ * class are present, plain loops otherwise, so src compiles and runs without the incubator module.
+ * pom.xml compiles simd/src with the module (mvn -DnoSimd leaves it out), the SIMD loops also need it at run time:
+ *     java --add-modules jdk.incubator.vector ...
+ * Lengths are multiples of Network.HIDDEN_ALIGNMENT, the vector loops need no scalar tail
+ * -> No need to initiate the class
+ */
+final class Kernels {
+
+    private static final Loops VECTOR = loadVectorLoops();
+    static final boolean SIMD = VECTOR != null;
+
+    private Kernels() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * The loops of a SIMD implementation, VectorKernels is the only one
+     */
+    interface Loops {
+        void add(short[] values, short[] weights, int offset);
+
+        void subtract(short[] values, short[] weights, int offset);
+
+        int clippedReluDot(short[] values, short[] weights, int offset);
+
+        String describe();
+    }
+
+    /**
+     * @return VectorKernels if it was compiled in and the incubator module is present, null otherwise
+     */
+    private static Loops loadVectorLoops() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Loops) Class.forName(Kernels.class.getPackageName() + ".VectorKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * values[i] += weights[offset + i] for every neuron
+     */
+    static void add(final short[] values,
+                    final short[] weights,
+                    final int offset) {
+        if (SIMD) {
+            VECTOR.add(values, weights, offset);
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] += weights[offset + i];
+        }
+    }
+
+    /**
+     * values[i] -= weights[offset + i] for every neuron
+     */
+    static void subtract(final short[] values,
+                         final short[] weights,
+                         final int offset) {
+        if (SIMD) {
+            VECTOR.subtract(values, weights, offset);
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] -= weights[offset + i];
+        }
+    }
+
+    /**
+     * Int sum, Network checks its output weights can't take it past the int range
+     * @return sum of min(max(values[i], 0), QA) * weights[offset + i]
+     */
+    static int clippedReluDot(final short[] values,
+                              final short[] weights,
+                              final int offset) {
+        if (SIMD) {
+            return VECTOR.clippedReluDot(values, weights, offset);
+        }
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += Math.min(Math.max(values[i], 0), Network.QA) * weights[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return description of the loops in use, for benchmark reports
+     */
+    static String describe() {
+        return SIMD ? VECTOR.describe() : "scalar (jdk.incubator.vector or VectorKernels not present)";
+    }
+}
@@ -0,0 +1,200 @@
+package com.chess.engine.nnue;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Weights of an efficiently updatable neural network (NNUE): (768 -> hidden) x 2 -> 1
+ * Input features are one per alliance, piece type and tile, seen from a perspective: the side to move and the other
+ * side each have their own hidden layer (Accumulator), fed by the same feature weights with the board mirrored for
+ * black, the output neuron reads the side to move first
+ *  feature = (own piece ? 0 : 6 + piece type ordinal) * 64 + tile   (tile ^ 56 from black's perspective)
+ *  output  = (sum CReLU(own[i]) * outputWeights[i] + sum CReLU(other[i]) * outputWeights[hidden + i] + outputBias)
+ *            * SCALE / (QA * QB), CReLU clips to [0, QA], centipawns for the side to move
+ * Weights are quantized: feature weights and biases by QA, output weights by QB, output bias by QA * QB
+ * The dot product of each half sums in an int (Kernels.clippedReluDot), so QA * sum |output weight| of a half must
+ * fit in an int, networks that break it are rejected when they are made rather than scoring garbage in the search
+ * File format, big endian (DataOutputStream): int MAGIC, int hidden size, short[768 * hidden] feature weights
+ * (feature major), short[hidden] feature biases, short[2 * hidden] output weights, int output bias
+ * NNUE: https://www.chessprogramming.org/NNUE
+ */
+public final class Network {
+
+    public static final int INPUTS = 2 * 6 * BoardUtils.NUM_TILES;
+    private static final int NUM_PIECE_TYPES = PieceType.values().length;
+    public static final int QA = 255, QB = 64, SCALE = 400;
+    public static final int HIDDEN_ALIGNMENT = 32;      // Whole vectors of up to 512 bits of shorts
+
+    private static final int MAGIC = 0x4E4E5545;        // "NNUE"
+
+    private final int hiddenSize;
+    private final short[] featureWeights;   // [feature * hidden + neuron]
+    private final short[] featureBiases;
+    private final short[] outputWeights;    // Side to move neurons, then the other side's
+    private final int outputBias;
+
+    private Network(final int hiddenSize,
+                    final short[] featureWeights,
+                    final short[] featureBiases,
+                    final short[] outputWeights,
+                    final int outputBias) {
+        if (hiddenSize < HIDDEN_ALIGNMENT || hiddenSize % HIDDEN_ALIGNMENT != 0) {
+            throw new RuntimeException("Hidden size must be a multiple of " + HIDDEN_ALIGNMENT + ", was " + hiddenSize);
+        }
+        checkOutputRange(outputWeights, 0, hiddenSize);
+        checkOutputRange(outputWeights, hiddenSize, hiddenSize);
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * @param path network file, see the class comment for the format
+     * @return network of the file
+     */
+    public static Network load(final Path path) {
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC) {
+                throw new RuntimeException(path + " is not a network file");
+            }
+            final int hiddenSize = input.readInt();
+            if (hiddenSize < HIDDEN_ALIGNMENT || hiddenSize > 1 << 14) {
+                throw new RuntimeException("Invalid hidden size " + hiddenSize + " in " + path);
+            }
+            final short[] featureWeights = readShorts(input, INPUTS * hiddenSize);
+            final short[] featureBiases = readShorts(input, hiddenSize);
+            final short[] outputWeights = readShorts(input, 2 * hiddenSize);
+            final int outputBias = input.readInt();
+            return new Network(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+        } catch (final IOException e) {
+            throw new RuntimeException("Cannot read network from " + path, e);
+        }
+    }
+
+    /**
+     * @param path file to write the network to
+     */
+    public void save(final Path path) {
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(this.hiddenSize);
+            writeShorts(output, this.featureWeights);
+            writeShorts(output, this.featureBiases);
+            writeShorts(output, this.outputWeights);
+            output.writeInt(this.outputBias);
+        } catch (final IOException e) {
+            throw new RuntimeException("Cannot write network to " + path, e);
+        }
+    }
+
+    /**
+     * Untrained network with small random weights, plays badly but costs the same as a trained one,
+     * for benchmarks and for checking the incremental updates
+     */
+    public static Network random(final int hiddenSize,
+                                 final long seed) {
+        final Random random = new Random(seed);
+        final short[] featureWeights = new short[INPUTS * hiddenSize];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        final short[] featureBiases = new short[hiddenSize];
+        for (int i = 0; i < featureBiases.length; i++) {
+            featureBiases[i] = (short) random.nextInt(QA);
+        }
+        final short[] outputWeights = new short[2 * hiddenSize];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(65) - 32);
+        }
+        return new Network(hiddenSize, featureWeights, featureBiases, outputWeights, 0);
+    }
+
+    /**
+     * @param perspective side the features are seen from
+     * @return input feature of the piece
+     */
+    public static int featureIndex(final Alliance perspective,
+                                   final Alliance alliance,
+                                   final PieceType pieceType,
+                                   final int coordinate) {
+        final int piece = (alliance == perspective ? 0 : NUM_PIECE_TYPES) + pieceType.ordinal();
+        return piece * BoardUtils.NUM_TILES + (perspective.isWhite() ? coordinate : coordinate ^ 56);
+    }
+
+    /**
+     * @param accumulator hidden layer of the position
+     * @param sideToMove side to move of the position
+     * @return score in centipawns, positive when the side to move is better
+     */
+    public int evaluate(final Accumulator accumulator,
+                        final Alliance sideToMove) {
+        final long sum = (long) Kernels.clippedReluDot(accumulator.getValues(sideToMove), this.outputWeights, 0) +
+                Kernels.clippedReluDot(accumulator.getValues(sideToMove.opposite()), this.outputWeights, this.hiddenSize) +
+                this.outputBias;
+        return (int) (sum * SCALE / (QA * QB));
+    }
+
+    /**
+     * @return whether the inner loops run on the Vector API or plain loops, for benchmark reports
+     */
+    public static String describeKernels() {
+        return Kernels.describe();
+    }
+
+    public int getHiddenSize() {
+        return this.hiddenSize;
+    }
+
+    short[] getFeatureWeights() {
+        return this.featureWeights;
+    }
+
+    short[] getFeatureBiases() {
+        return this.featureBiases;
+    }
+
+    /**
+     * Largest clipped dot product of the half: every value at QA, with the sign of its weight
+     * Int arithmetic wraps, so partial sums may overflow in any order as long as the total fits
+     */
+    private static void checkOutputRange(final short[] outputWeights,
+                                         final int offset,
+                                         final int length) {
+        long bound = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bound += (long) Network.QA * Math.abs(outputWeights[i]);
+        }
+        if (bound > Integer.MAX_VALUE) {
+            throw new RuntimeException("Output weights " + offset + " to " + (offset + length - 1) +
+                    " can overflow the int dot product: QA * sum |weight| = " + bound);
+        }
+    }
+
+    private static short[] readShorts(final DataInputStream input,
+                                      final int length) throws IOException {
+        final short[] values = new short[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = input.readShort();
+        }
+        return values;
+    }
+
+    private static void writeShorts(final DataOutputStream output,
+                                    final short[] values) throws IOException {
+        for (final short value : values) {
+            output.writeShort(value);
+        }
+    }
+}
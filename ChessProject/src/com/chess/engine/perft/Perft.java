@@ -0,0 +1,221 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.MoveListStack;
+import com.chess.engine.board.MutableBoard;
+import com.chess.engine.player.MoveTransition;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft: walk the move tree to a fixed depth and count the leaf nodes
+ * Counts are compared with published numbers to prove the move generators correct,
+ * and the time taken gives the throughput (nodes per second) of move generation + Move.execute
+ * Perft: https://www.chessprogramming.org/Perft
+ *        https://www.chessprogramming.org/Perft_Results
+ *
+ * Every run also reports the bytes allocated per node, read from the JVM's per thread allocation counter
+ *
+ * Usage: Perft [-divide] [-mutable] depth [FEN]   count one position (standard board if no FEN)
+ *        Perft -suite [-mutable] depth            check all REFERENCE_POSITIONS up to depth
+ *        -mutable walks a MutableBoard with encoded moves and per ply move lists instead of Board/Move objects
+ */
+public final class Perft {
+
+    /**
+     * Well known positions with their node counts for depth 1, 2, 3, ...
+     */
+    private static final Object[][] REFERENCE_POSITIONS = {
+            {"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", new long[]{20, 400, 8902, 197281, 4865609}},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", new long[]{48, 2039, 97862, 4085603}},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", new long[]{14, 191, 2812, 43238, 674624}},
+            {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", new long[]{6, 264, 9467, 422333}},
+            {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", new long[]{44, 1486, 62379, 2103487}},
+            {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", new long[]{46, 2079, 89890, 3894594}}
+    };
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Perft() {
+        throw new RuntimeException("You cannot initiate this class");
+    }
+
+    /**
+     * Count leaf nodes of the move tree, legality is decided by Player.makeMove like in a real game
+     * Legal moves are strictly legal, so the last ply only counts them (bulk counting) instead of making each board
+     * @param board position to start from
+     * @param depth number of plies to walk
+     * @return number of leaf nodes
+     */
+    public static long perft(final Board board, final int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        if (depth == 1) {
+            return board.getCurrentPlayer().getLegalMoves().size();
+        }
+        long nodes = 0L;
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += perft(transition.getToBoard(), depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Count leaf nodes by making and unmaking encoded moves on a mutable board
+     * Moves of each ply go to the list of that ply in the stack, so nothing is allocated once the lists exist
+     * @param board position to start from, left as it was when done
+     * @param depth number of plies to walk, at most moveLists.getMaxPly()
+     * @param moveLists one move list per remaining depth
+     * @return number of leaf nodes
+     */
+    public static long perft(final MutableBoard board, final int depth, final MoveListStack moveLists) {
+        if (depth == 0) {
+            return 1L;
+        }
+        final MoveList moveList = moveLists.get(depth);
+        board.generateLegalMoves(moveList);
+        if (depth == 1) {
+            return moveList.size();
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moveList.size(); i++) {
+            board.makeMove(moveList.get(i));
+            nodes += perft(board, depth - 1, moveLists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Perft split by root move, compare with another engine's divide output to find the move that counts wrong
+     * @param board position to start from
+     * @param depth number of plies to walk, at least 1
+     * @return node count per root move, in generation order
+     */
+    public static Map<String, Long> divide(final Board board, final int depth) {
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                divide.put(toCoordinateNotation(move), perft(transition.getToBoard(), depth - 1));
+            }
+        }
+        return divide;
+    }
+
+    /**
+     * Move as from and to tile (plus promoted piece), the notation used by perft tools: e2e4, e7e8q
+     * @param move move to write
+     * @return move in coordinate notation
+     */
+    public static String toCoordinateNotation(final Move move) {
+        final String text = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate()) +
+                BoardUtils.getPositionAtCoordinate(move.getDestinationCoordinate());
+        if (move instanceof Move.PawnPromotion) {
+            return text + ((Move.PawnPromotion) move).getPromotedPiece().toString().toLowerCase();
+        }
+        return text;
+    }
+
+    /**
+     * Run perft on every reference position up to the given depth
+     * @param maxDepth deepest depth to check
+     * @return true if every count matches
+     */
+    public static boolean runSuite(final int maxDepth, final boolean isMutable) {
+        boolean allPassed = true;
+        for (final Object[] reference : REFERENCE_POSITIONS) {
+            final String fen = (String) reference[0];
+            final long[] expectedNodes = (long[]) reference[1];
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            final MutableBoard mutableBoard = new MutableBoard(board);
+            final MoveListStack moveLists = new MoveListStack(expectedNodes.length);
+            System.out.println(fen);
+            for (int depth = 1; depth <= Math.min(maxDepth, expectedNodes.length); depth++) {
+                final long startBytes = getAllocatedBytes();
+                final long start = System.nanoTime();
+                final long nodes = isMutable ? perft(mutableBoard, depth, moveLists) : perft(board, depth);
+                final long elapsed = System.nanoTime() - start;
+                final long allocated = getAllocatedBytes() - startBytes;
+                final boolean passed = nodes == expectedNodes[depth - 1];
+                allPassed &= passed;
+                System.out.printf("  depth %d: %12d nodes, expected %12d %s %s %s%n", depth, nodes, expectedNodes[depth - 1],
+                        passed ? "OK  " : "FAIL", formatSpeed(nodes, elapsed), formatAllocation(allocated, nodes));
+            }
+        }
+        return allPassed;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, allocation per node is the difference over a run
+     */
+    public static long getAllocatedBytes() {
+        return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static String formatAllocation(final long allocatedBytes, final long nodes) {
+        return String.format("[%,.1f bytes/node]", (double) allocatedBytes / Math.max(nodes, 1L));
+    }
+
+    private static String formatSpeed(final long nodes, final long elapsedNanos) {
+        final double seconds = Math.max(elapsedNanos, 1L) / 1e9;
+        return String.format("(%.3f s, %,.0f nps)", seconds, nodes / seconds);
+    }
+
+    public static void main(final String[] args) {
+        boolean divide = false;
+        boolean suite = false;
+        boolean mutable = false;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-divide")) {
+                divide = true;
+            } else if (args[argIndex].equals("-suite")) {
+                suite = true;
+            } else if (args[argIndex].equals("-mutable")) {
+                mutable = true;
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        final int depth = argIndex < args.length ? Integer.parseInt(args[argIndex++]) : 4;
+        if (suite) {
+            System.exit(runSuite(depth, mutable) ? 0 : 1);
+        }
+        final StringBuilder fen = new StringBuilder();
+        while (argIndex < args.length) {
+            fen.append(args[argIndex++]).append(' ');
+        }
+        final Board board = fen.length() == 0 ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen.toString());
+        System.out.println(board);
+
+        final long startBytes = getAllocatedBytes();
+        final long start = System.nanoTime();
+        long nodes = 0L;
+        if (divide) {
+            for (final Map.Entry<String, Long> entry : divide(board, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else if (mutable) {
+            nodes = perft(new MutableBoard(board), depth, new MoveListStack(depth));
+        } else {
+            nodes = perft(board, depth);
+        }
+        final long elapsed = System.nanoTime() - start;
+        System.out.printf("depth %d: %d nodes %s %s%n", depth, nodes, formatSpeed(nodes, elapsed),
+                formatAllocation(getAllocatedBytes() - startBytes, nodes));
+    }
+}
@@ -2,9 +2,8 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -12,12 +11,10 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- * Addition variable -9, -7, 7, 9 to calculate legal move
+ * Long range unit on diagonals, attacks come from the bishop magic bitboard table
  */
 public class Bishop extends Piece{
 
-    private final static int[] CANDIDATE_MOVE_DIRECTION = {-9, -7, 7, 9};
-
     public Bishop(final Alliance pieceAlliance,
                   final int piecePosition) {
         super(PieceType.BISHOP, pieceAlliance, piecePosition, true);
@@ -28,52 +25,33 @@ public class Bishop extends Piece{
     }
 
     /**
-     * Implemented knight legal move calculation
-     * Depth-First Check CANDIDATE_MOVE_COORDINATE
-     * Bishop is long range unit, use while until out of range, with exceptional
+     * Implemented bishop legal move calculation
+     * Bishop is long range unit, the magic lookup replaces walking each diagonal tile by tile
      * @param board current board state
      * @return collection(set) of legal move for this specified bishop
      */
     @Override
     public Collection<Move> calculateLegalMove(Board board) {
         final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if(isFirstColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate) ||
-                        isEighthColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate)) {
-                    break;
-                }
-                candidateDestinationCoordinate += currentAdditionCandidate;
-                if(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        }
-                        break; // As if there is an occupied tile on the specific CANDIDATE_MOVE_DIRECTION, break the loop, move to next direction
-                    }
-                }
+        // One magic lookup gives every ray up to and including its first blocker, friendly blockers are dropped
+        long candidateDestinations = MagicBitBoards.bishopAttacks(this.piecePosition, board.getBitBoard().getOccupancy()) &
+                ~board.getBitBoard().getAlliancePieces(this.pieceAlliance);
+        while (candidateDestinations != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(candidateDestinations);
+            if (!board.isTileOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+            } else {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getPiece(candidateDestinationCoordinate)));
             }
+            candidateDestinations &= candidateDestinations - 1;
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
     @Override
     public Bishop makeMovePiece(Move move) {
-        return new Bishop(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
-    }
-
-    private static boolean isFirstColumnExclusion(final int piecePosition, final int currentCandidateDirection) {
-        return (BoardUtils.FIRST_COLUMN[piecePosition] && (currentCandidateDirection == -9 || currentCandidateDirection == 7));
-    }
-
-    private static boolean isEighthColumnExclusion(final int piecePosition, final int currentCandidateDirection) {
-        return (BoardUtils.EIGHTH_COLUMN[piecePosition] && (currentCandidateDirection == -7 || currentCandidateDirection == 9));
+        return InstancePromotion.INSTANCE.getMovedBishop(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
     }
 
     @Override
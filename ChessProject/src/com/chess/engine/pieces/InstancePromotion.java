@@ -2,91 +2,90 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.BoardUtils;
-import com.google.common.collect.ImmutableTable;
-import com.google.common.collect.Table;
+import com.chess.engine.pieces.Piece.PieceType;
 
+/**
+ * Flyweight registry of every piece the game can have: one instance per alliance, piece type, tile and first move flag
+ * Pieces are immutable and compared by value, so the same instance can be shared by every board
+ * makeMovePiece, castles, promotions and board set up take their pieces from here, playing and searching never allocates a piece
+ * 2 alliances * 6 piece types * 2 flags * 64 tiles = 1536 pieces, made once
+ * Flyweight: https://en.wikipedia.org/wiki/Flyweight_pattern
+ */
 public enum InstancePromotion {
 
     INSTANCE;
 
-    private final Table<Alliance, Integer, Queen> ALL_POSSIBLE_QUEENS = InstancePromotion.createAllPossibleMovedQueens();
-    private final Table<Alliance, Integer, Rook> ALL_POSSIBLE_ROOKS = InstancePromotion.createAllPossibleMovedRooks();
-    private final Table<Alliance, Integer, Knight> ALL_POSSIBLE_KNIGHTS = InstancePromotion.createAllPossibleMovedKnights();
-    private final Table<Alliance, Integer, Bishop> ALL_POSSIBLE_BISHOPS = InstancePromotion.createAllPossibleMovedBishops();
-    private final Table<Alliance, Integer, Pawn> ALL_POSSIBLE_PAWNS = InstancePromotion.createAllPossibleMovedPawns();
+    private final Piece[][][][] allPossiblePieces = createAllPossiblePieces();     // [alliance][piece type][first move][tile]
 
-    Pawn getMovedPawn(final Alliance alliance,
-                      final int destinationCoordinate) {
-        return ALL_POSSIBLE_PAWNS.get(alliance, destinationCoordinate);
+    /**
+     * @param alliance alliance of the piece
+     * @param pieceType type of the piece
+     * @param coordinate tile of the piece
+     * @param isFirstMove true if the piece has not moved yet
+     * @return shared instance of that piece
+     */
+    public Piece getPiece(final Alliance alliance,
+                          final PieceType pieceType,
+                          final int coordinate,
+                          final boolean isFirstMove) {
+        return this.allPossiblePieces[alliance.ordinal()][pieceType.ordinal()][isFirstMove ? 1 : 0][coordinate];
     }
 
-    Knight getMovedKnight(final Alliance alliance,
-                          final int destinationCoordinate) {
-        return ALL_POSSIBLE_KNIGHTS.get(alliance, destinationCoordinate);
+    public Pawn getMovedPawn(final Alliance alliance,
+                             final int destinationCoordinate) {
+        return (Pawn) getPiece(alliance, PieceType.PAWN, destinationCoordinate, false);
     }
 
-    Bishop getMovedBishop(final Alliance alliance,
-                          final int destinationCoordinate) {
-        return ALL_POSSIBLE_BISHOPS.get(alliance, destinationCoordinate);
+    public Knight getMovedKnight(final Alliance alliance,
+                                 final int destinationCoordinate) {
+        return (Knight) getPiece(alliance, PieceType.KNIGHT, destinationCoordinate, false);
     }
 
-    Rook getMovedRook(final Alliance alliance,
-                      final int destinationCoordinate) {
-        return ALL_POSSIBLE_ROOKS.get(alliance, destinationCoordinate);
+    public Bishop getMovedBishop(final Alliance alliance,
+                                 final int destinationCoordinate) {
+        return (Bishop) getPiece(alliance, PieceType.BISHOP, destinationCoordinate, false);
     }
 
-    Queen getMovedQueen(final Alliance alliance,
-                        final int destinationCoordinate) {
-        return ALL_POSSIBLE_QUEENS.get(alliance, destinationCoordinate);
+    public Rook getMovedRook(final Alliance alliance,
+                             final int destinationCoordinate) {
+        return (Rook) getPiece(alliance, PieceType.ROOK, destinationCoordinate, false);
     }
 
-    private static Table<Alliance, Integer, Pawn> createAllPossibleMovedPawns() {
-        final ImmutableTable.Builder<Alliance, Integer, Pawn> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Pawn(alliance, i, false));
-            }
-        }
-        return pieces.build();
+    public Queen getMovedQueen(final Alliance alliance,
+                               final int destinationCoordinate) {
+        return (Queen) getPiece(alliance, PieceType.QUEEN, destinationCoordinate, false);
     }
 
-    private static Table<Alliance, Integer, Knight> createAllPossibleMovedKnights() {
-        final ImmutableTable.Builder<Alliance, Integer, Knight> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Knight(alliance, i, false));
-            }
-        }
-        return pieces.build();
+    public King getMovedKing(final Alliance alliance,
+                             final int destinationCoordinate) {
+        return (King) getPiece(alliance, PieceType.KING, destinationCoordinate, false);
     }
 
-    private static Table<Alliance, Integer, Bishop> createAllPossibleMovedBishops() {
-        final ImmutableTable.Builder<Alliance, Integer, Bishop> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Bishop(alliance, i, false));
+    private static Piece[][][][] createAllPossiblePieces() {
+        final Piece[][][][] pieces = new Piece[Alliance.values().length][PieceType.values().length][2][BoardUtils.NUM_TILES];
+        for (final Alliance alliance : Alliance.values()) {
+            for (final PieceType pieceType : PieceType.values()) {
+                for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+                    pieces[alliance.ordinal()][pieceType.ordinal()][0][i] = createPiece(alliance, pieceType, i, false);
+                    pieces[alliance.ordinal()][pieceType.ordinal()][1][i] = createPiece(alliance, pieceType, i, true);
+                }
             }
         }
-        return pieces.build();
+        return pieces;
     }
 
-    private static Table<Alliance, Integer, Rook> createAllPossibleMovedRooks() {
-        final ImmutableTable.Builder<Alliance, Integer, Rook> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Rook(alliance, i, false));
-            }
-        }
-        return pieces.build();
-    }
-
-    private static Table<Alliance, Integer, Queen> createAllPossibleMovedQueens() {
-        final ImmutableTable.Builder<Alliance, Integer, Queen> pieces = ImmutableTable.builder();
-        for(final Alliance alliance : Alliance.values()) {
-            for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-                pieces.put(alliance, i, new Queen(alliance, i, false));
-            }
+    private static Piece createPiece(final Alliance alliance,
+                                     final PieceType pieceType,
+                                     final int coordinate,
+                                     final boolean isFirstMove) {
+        switch (pieceType) {
+            case PAWN:   return new Pawn(alliance, coordinate, isFirstMove);
+            case KNIGHT: return new Knight(alliance, coordinate, isFirstMove);
+            case BISHOP: return new Bishop(alliance, coordinate, isFirstMove);
+            case ROOK:   return new Rook(alliance, coordinate, isFirstMove);
+            case QUEEN:  return new Queen(alliance, coordinate, isFirstMove);
+            case KING:   return new King(alliance, coordinate, isFirstMove);
+            default: throw new RuntimeException("Invalid piece type " + pieceType);
         }
-        return pieces.build();
     }
 }
@@ -1,10 +1,10 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,6 +20,13 @@ public class King extends Piece{
 
     private final static int[] CANDIDATE_MOVE_DIRECTION = {-9, -8, -7, -1, 1, 7, 8, 9};
 
+    /**
+     * Destination tiles of a king on each tile, precomputed once with the edge exclusions below
+     * so move generation is a table lookup with no edge case branching
+     */
+    private final static int[][] DESTINATION_TILES = initDestinationTiles();
+    private final static long[] ATTACK_MASKS = initAttackMasks();
+
     public King(final Alliance pieceAlliance, final int piecePosition) {
         super(PieceType.KING, pieceAlliance, piecePosition, true);
     }
@@ -31,30 +38,69 @@ public class King extends Piece{
     @Override
     public Collection<Move> calculateLegalMove(Board board) {
         final List<Move> legalMoves = new ArrayList<>();
-        for(final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
-            final int candidateDestinationCoordinate = this.piecePosition + currentAdditionCandidate;
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isFirstColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate) ||
-                        isEightColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate)) {
+        // Only tiles without a friendly piece are left, so each one is a move or a capture
+        long candidateDestinations = ATTACK_MASKS[this.piecePosition] &
+                ~board.getBitBoard().getAlliancePieces(this.pieceAlliance);
+        while (candidateDestinations != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(candidateDestinations);
+            if (!board.isTileOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+            } else {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getPiece(candidateDestinationCoordinate)));
+            }
+            candidateDestinations &= candidateDestinations - 1;
+        }
+        return legalMoves;
+    }
+
+    /**
+     * @param coordinate tile of the king
+     * @return tiles a king on that tile attacks
+     */
+    public static int[] getDestinationTiles(final int coordinate) {
+        return DESTINATION_TILES[coordinate];
+    }
+
+    /**
+     * @param coordinate tile of the king
+     * @return bitmask of the tiles a king on that tile attacks
+     */
+    public static long getAttackMask(final int coordinate) {
+        return ATTACK_MASKS[coordinate];
+    }
+
+    private static int[][] initDestinationTiles() {
+        final int[][] destinationTiles = new int[BoardUtils.NUM_TILES][];
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            final List<Integer> destinations = new ArrayList<>();
+            for (final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
+                final int candidateDestinationCoordinate = coordinate + currentAdditionCandidate;
+                if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate) ||
+                        isFirstColumnExclusion(coordinate, currentAdditionCandidate) ||
+                        isEightColumnExclusion(coordinate, currentAdditionCandidate)) {
                     continue;
                 }
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));    // Non-Attacked move
-                } else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    if (pieceAtDestination.pieceAlliance != this.pieceAlliance) {
-                        legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                    }
-                }
+                destinations.add(candidateDestinationCoordinate);
             }
+            destinationTiles[coordinate] = destinations.stream().mapToInt(Integer::intValue).toArray();
         }
-        return legalMoves;
+        return destinationTiles;
+    }
+
+    private static long[] initAttackMasks() {
+        final long[] attackMasks = new long[BoardUtils.NUM_TILES];
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            for (final int destination : DESTINATION_TILES[coordinate]) {
+                attackMasks[coordinate] |= BitBoard.tileMask(destination);
+            }
+        }
+        return attackMasks;
     }
 
     @Override
     public King makeMovePiece(Move move) {
-        return new King(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
+        return InstancePromotion.INSTANCE.getMovedKing(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
     }
 
     private static boolean isFirstColumnExclusion(final int piecePosition, final int currentCandidate) {
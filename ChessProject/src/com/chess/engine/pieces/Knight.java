@@ -1,9 +1,9 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
-import com.chess.engine.board.Tile;
 import com.google.common.collect.ImmutableList;
 import com.chess.engine.board.Move;
 
@@ -22,6 +22,13 @@ public class Knight extends Piece {
      */
     private final static int[] CANDIDATE_MOVE_DIRECTION = { -17, -15, -10, -6, 6, 10, 15, 17};
 
+    /**
+     * Destination tiles of a knight on each tile, precomputed once with the edge exclusions below
+     * so move generation is a table lookup with no edge case branching
+     */
+    private final static int[][] DESTINATION_TILES = initDestinationTiles();
+    private final static long[] ATTACK_MASKS = initAttackMasks();
+
     public Knight(final Alliance pieceAlliance, final int piecePosition) {
         super(PieceType.KNIGHT, pieceAlliance, piecePosition, true);
     }
@@ -32,42 +39,79 @@ public class Knight extends Piece {
 
     /**
      * Implemented knight legal move calculation
-     * Breath-First Check CANDIDATE_MOVE_COORDINATE
-     * Knight cannot go Depth Check anyway because they are short distance unit
+     * Knight is a short distance unit, its destinations only depend on its tile,
+     * so look them up in ATTACK_MASKS and drop the tiles held by friendly pieces
      * @param board current board state
      * @return return list of legal move for this specified knight
      */
     @Override
     public Collection<Move> calculateLegalMove(final Board board) {
         final List<Move> legalMoves = new ArrayList<>();
-        for (final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
-            final int candidateDestinationCoordinate = this.piecePosition + currentAdditionCandidate;
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {/*candidateDestinationCoordinate > 63 || candidateDestinationCoordinate < 0*/   // If candidate is out of chess board bound
-                if(isFirstColumnExclusion(this.piecePosition, currentAdditionCandidate) ||
-                        isSecondColumnExclusion(this.piecePosition, currentAdditionCandidate) ||
-                        isSeventhColumnExclusion(this.piecePosition, currentAdditionCandidate) ||
-                        isEighthColumnExclusion(this.piecePosition, currentAdditionCandidate)) {
-                    continue;   // Skip below, continue to irritate through loop
-                }
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);    // Get the tile location
-                if (!candidateDestinationTile.isTileOccupied()) {   // If tile is not occupied
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate)); // Add normal move
-                } else {    // If it's opponent piece
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-
-                    if (this.pieceAlliance != pieceAlliance) {  // Opponent is in a legal move, add attackedMove
-                        legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                    }
-                }
+        // Only tiles without a friendly piece are left, so each one is a move or a capture
+        long candidateDestinations = ATTACK_MASKS[this.piecePosition] &
+                ~board.getBitBoard().getAlliancePieces(this.pieceAlliance);
+        while (candidateDestinations != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(candidateDestinations);
+            if (!board.isTileOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+            } else {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getPiece(candidateDestinationCoordinate)));
             }
+            candidateDestinations &= candidateDestinations - 1;
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
+    /**
+     * @param coordinate tile of the knight
+     * @return tiles a knight on that tile attacks
+     */
+    public static int[] getDestinationTiles(final int coordinate) {
+        return DESTINATION_TILES[coordinate];
+    }
+
+    /**
+     * @param coordinate tile of the knight
+     * @return bitmask of the tiles a knight on that tile attacks
+     */
+    public static long getAttackMask(final int coordinate) {
+        return ATTACK_MASKS[coordinate];
+    }
+
+    private static int[][] initDestinationTiles() {
+        final int[][] destinationTiles = new int[BoardUtils.NUM_TILES][];
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            final List<Integer> destinations = new ArrayList<>();
+            for (final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
+                final int candidateDestinationCoordinate = coordinate + currentAdditionCandidate;
+                if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate) ||
+                        isFirstColumnExclusion(coordinate, currentAdditionCandidate) ||
+                        isSecondColumnExclusion(coordinate, currentAdditionCandidate) ||
+                        isSeventhColumnExclusion(coordinate, currentAdditionCandidate) ||
+                        isEighthColumnExclusion(coordinate, currentAdditionCandidate)) {
+                    continue;
+                }
+                destinations.add(candidateDestinationCoordinate);
+            }
+            destinationTiles[coordinate] = destinations.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return destinationTiles;
+    }
+
+    private static long[] initAttackMasks() {
+        final long[] attackMasks = new long[BoardUtils.NUM_TILES];
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            for (final int destination : DESTINATION_TILES[coordinate]) {
+                attackMasks[coordinate] |= BitBoard.tileMask(destination);
+            }
+        }
+        return attackMasks;
+    }
+
     @Override
     public Knight makeMovePiece(Move move) {
-        return new Knight(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
+        return InstancePromotion.INSTANCE.getMovedKnight(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
     }
 
     //There are some exceptional case for knight when it's on edge of the board
@@ -1,6 +1,7 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
@@ -19,6 +20,11 @@ public class Pawn extends Piece {
 
     private final static int[] CANDIDATE_MOVE_DIRECTION = {7, 8, 9, 16}; //8, 16 are non-attacked moves; 7, 9 are attacked move
 
+    /**
+     * Diagonal tiles a pawn of each alliance attacks from each tile, [alliance][tile]
+     */
+    private final static long[][] ATTACK_MASKS = initAttackMasks();
+
     public Pawn(final Alliance pieceAlliance, final int piecePosition) {
         super(PieceType.PAWN, pieceAlliance, piecePosition, true);
     }
@@ -36,45 +42,98 @@ public class Pawn extends Piece {
             if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) { //If out of bound (table)
                 continue;
             }
-            if (currentAdditionCandidate == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {    // non-attacked move, 1 box
-                if (this.pieceAlliance.isPromotionTile(candidateDestinationCoordinate)) {
-                    //legalMoves.add(new Move.PawnPromotion())
-                }
-                legalMoves.add(new Move.PawnMove(board, this, candidateDestinationCoordinate));
-            } else if (candidateDestinationCoordinate == 16 && this.isFirstMove &&   // Non-attack move, 2 boxes
+            if (currentAdditionCandidate == 8 && !board.isTileOccupied(candidateDestinationCoordinate)) {    // non-attacked move, 1 box
+                addPawnMove(legalMoves, new Move.PawnMove(board, this, candidateDestinationCoordinate));
+            } else if (currentAdditionCandidate == 16 && this.isFirstMove &&   // Non-attack move, 2 boxes
                     ((BoardUtils.SEVENTH_RANK[this.piecePosition] && this.pieceAlliance.isBlack()) ||
                             (BoardUtils.SECOND_RANK[this.piecePosition] && this.pieceAlliance.isWhite()))) {
                 final int behindCandidateDestinationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * 8); // Check for the double box position
-                if (!board.getTile(behindCandidateDestinationCoordinate).isTileOccupied() &&
-                        !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    // TODO pawn promotion
-                    legalMoves.add(new Move.PawnJump(board, this, behindCandidateDestinationCoordinate));
+                if (!board.isTileOccupied(behindCandidateDestinationCoordinate) &&
+                        !board.isTileOccupied(candidateDestinationCoordinate)) {
+                    legalMoves.add(new Move.PawnJump(board, this, candidateDestinationCoordinate));
                 }
             } else if (currentAdditionCandidate == 7 &&  // Capture Move
                     !((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) || // Not edge case
                             (BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {    // Not edge case
-                if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) { // Only if tile's occupied
-                    final Piece pieceOnDestination = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (pieceOnDestination.pieceAlliance != this.pieceAlliance) {   // Only if occupied by component
-                        //TODO if promotion also happens
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    }
-                }
+                addPawnAttack(legalMoves, board, candidateDestinationCoordinate, this.piecePosition - this.pieceAlliance.getDirection());
             } else if (currentAdditionCandidate == 9 && // Capture Move
                     !((BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||  // Not edge case
                             (BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) { // Not edge case
-                if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {   // Only if tile's occupied
-                    final Piece pieceOnDestination = board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (pieceOnDestination.pieceAlliance != this.pieceAlliance) {   // Only if occupied by component
-                        //TODO if promotion also happens
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    }
-                }
+                addPawnAttack(legalMoves, board, candidateDestinationCoordinate, this.piecePosition + this.pieceAlliance.getDirection());
             }
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
+    /**
+     * Capture on a diagonal tile: normal capture if opponent piece is on it,
+     * en passant if the opponent pawn that just jumped stands next to this pawn
+     * @param legalMoves moves found so far
+     * @param board current board state
+     * @param candidateDestinationCoordinate diagonal tile
+     * @param enPassantCoordinate tile next to this pawn on the same side as the diagonal tile
+     */
+    private void addPawnAttack(final List<Move> legalMoves,
+                               final Board board,
+                               final int candidateDestinationCoordinate,
+                               final int enPassantCoordinate) {
+        if (board.isTileOccupied(candidateDestinationCoordinate)) { // Only if tile's occupied
+            final Piece pieceOnDestination = board.getPiece(candidateDestinationCoordinate);
+            if (pieceOnDestination.pieceAlliance != this.pieceAlliance) {   // Only if occupied by component
+                addPawnMove(legalMoves, new Move.PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnDestination));
+            }
+        } else if (board.getEnPassantPawn() != null &&
+                board.getEnPassantPawn().getPiecePosition() == enPassantCoordinate &&
+                board.getEnPassantPawn().pieceAlliance != this.pieceAlliance) {
+            legalMoves.add(new Move.PawnEnPassantAttackMove(board, this, candidateDestinationCoordinate, board.getEnPassantPawn()));
+        }
+    }
+
+    /**
+     * Add the move, or one promotion per piece type if the move reaches the last rank
+     * @param legalMoves moves found so far
+     * @param pawnMove move or capture of this pawn
+     */
+    private void addPawnMove(final List<Move> legalMoves, final Move pawnMove) {
+        final int destinationCoordinate = pawnMove.getDestinationCoordinate();
+        if (this.pieceAlliance.isPromotionTile(destinationCoordinate)) {
+            legalMoves.add(new Move.PawnPromotion(InstancePromotion.INSTANCE.getMovedQueen(this.pieceAlliance, destinationCoordinate), pawnMove));
+            legalMoves.add(new Move.PawnPromotion(InstancePromotion.INSTANCE.getMovedRook(this.pieceAlliance, destinationCoordinate), pawnMove));
+            legalMoves.add(new Move.PawnPromotion(InstancePromotion.INSTANCE.getMovedBishop(this.pieceAlliance, destinationCoordinate), pawnMove));
+            legalMoves.add(new Move.PawnPromotion(InstancePromotion.INSTANCE.getMovedKnight(this.pieceAlliance, destinationCoordinate), pawnMove));
+        } else {
+            legalMoves.add(pawnMove);
+        }
+    }
+
+    /**
+     * @param alliance alliance of the pawn
+     * @param coordinate tile of the pawn
+     * @return bitmask of the tiles a pawn of that alliance attacks from that tile
+     */
+    public static long getAttackMask(final Alliance alliance, final int coordinate) {
+        return ATTACK_MASKS[alliance.ordinal()][coordinate];
+    }
+
+    private static long[][] initAttackMasks() {
+        final long[][] attackMasks = new long[Alliance.values().length][BoardUtils.NUM_TILES];
+        for (final Alliance alliance : Alliance.values()) {
+            for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+                final int forwardCoordinate = coordinate + alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+                if (!BoardUtils.isValidTileCoordinate(forwardCoordinate)) {
+                    continue;
+                }
+                if (!BoardUtils.FIRST_COLUMN[coordinate]) {
+                    attackMasks[alliance.ordinal()][coordinate] |= BitBoard.tileMask(forwardCoordinate - 1);
+                }
+                if (!BoardUtils.EIGHTH_COLUMN[coordinate]) {
+                    attackMasks[alliance.ordinal()][coordinate] |= BitBoard.tileMask(forwardCoordinate + 1);
+                }
+            }
+        }
+        return attackMasks;
+    }
+
     /**
      * Make new pieces with same alliance and destination Coordinate
      * @param move  to get alliance type
@@ -82,7 +141,7 @@ public class Pawn extends Piece {
      */
     @Override
     public Pawn makeMovePiece(Move move) {
-        return new Pawn(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
+        return InstancePromotion.INSTANCE.getMovedPawn(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
     }
 
     @Override
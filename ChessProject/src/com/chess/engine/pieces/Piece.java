@@ -77,7 +77,7 @@ public abstract class Piece {
      */
     public enum PieceType {
 
-        PAWN("P") {
+        PAWN(100, "P") {
             @Override
             public boolean isKing() {
                 return false;
@@ -87,7 +87,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        KNIGHT("N") {
+        KNIGHT(320, "N") {
             @Override
             public boolean isKing() {
                 return false;
@@ -96,7 +96,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        BISHOP("B") {
+        BISHOP(330, "B") {
             @Override
             public boolean isKing() {
                 return false;
@@ -105,7 +105,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        ROOK("R") {
+        ROOK(500, "R") {
             @Override
             public boolean isKing() {
                 return false;
@@ -114,7 +114,7 @@ public abstract class Piece {
                 return true;
             }
         },
-        KING("K") {
+        KING(10000, "K") {
             @Override
             public boolean isKing() {
                 return true;
@@ -123,7 +123,7 @@ public abstract class Piece {
                 return false;
             }
         },
-        QUEEN("Q") {
+        QUEEN(900, "Q") {
             @Override
             public boolean isKing() {
                 return false;
@@ -133,12 +133,18 @@ public abstract class Piece {
             }
         };
 
+        private final int pieceValue;   // Centipawns, used by evaluation and capture ordering
         private final String pieceName;
 
-        PieceType(final String pieceName) {
+        PieceType(final int pieceValue, final String pieceName) {
+            this.pieceValue = pieceValue;
             this.pieceName = pieceName;
         }
 
+        public int getPieceValue() {
+            return this.pieceValue;
+        }
+
         @Override
         public String toString() {
             return this.pieceName;
@@ -2,9 +2,8 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
@@ -12,12 +11,10 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- * Mostly a union of bishop and rook
+ * Mostly a union of bishop and rook, attacks are the union of both magic bitboard lookups
  */
 public class Queen extends Piece{
 
-    private final static int[] CANDIDATE_MOVE_DIRECTION = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public Queen(final Alliance pieceAlliance, final int piecePosition) {
         super(PieceType.QUEEN, pieceAlliance, piecePosition, true);
     }
@@ -29,50 +26,25 @@ public class Queen extends Piece{
     @Override
     public Collection<Move> calculateLegalMove(Board board) {
         final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int currentAdditionCandidate : CANDIDATE_MOVE_DIRECTION) {
-            int candidateDestinationCoordinate = piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isFirstColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate) ||  // Edge cases
-                        isEighthColumnExclusion(candidateDestinationCoordinate, currentAdditionCandidate)) {
-                    break;
-                }
-                candidateDestinationCoordinate += currentAdditionCandidate;
-                if(BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
+        // One magic lookup gives every ray up to and including its first blocker, friendly blockers are dropped
+        long candidateDestinations = MagicBitBoards.queenAttacks(this.piecePosition, board.getBitBoard().getOccupancy()) &
+                ~board.getBitBoard().getAlliancePieces(this.pieceAlliance);
+        while (candidateDestinations != 0) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(candidateDestinations);
+            if (!board.isTileOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
+            } else {
+                legalMoves.add(new Move.MajorAttackMove(board, this, candidateDestinationCoordinate,
+                        board.getPiece(candidateDestinationCoordinate)));
             }
+            candidateDestinations &= candidateDestinations - 1;
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
     @Override
     public Queen makeMovePiece(Move move) {
-        return new Queen(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
-    }
-
-    private static boolean isFirstColumnExclusion(final int piecePosition, final int currentCandidateDirection) {
-        return BoardUtils.FIRST_COLUMN[piecePosition] &&
-                (currentCandidateDirection == -9 ||
-                        currentCandidateDirection == -1 ||
-                        currentCandidateDirection == 7);
-    }
-
-    private static boolean isEighthColumnExclusion(final int piecePosition, final int currentCandidateDirection) {
-        return BoardUtils.EIGHTH_COLUMN[piecePosition] &&
-                (currentCandidateDirection == -7 ||
-                        currentCandidateDirection == 1 ||
-                        currentCandidateDirection == 9);
+        return InstancePromotion.INSTANCE.getMovedQueen(move.getMovedPiece().pieceAlliance, move.getDestinationCoordinate());
     }
 
     @Override
@@ -80,5 +52,4 @@ public class Queen extends Piece{
         return PieceType.QUEEN.toString();
     }
 
-
 }
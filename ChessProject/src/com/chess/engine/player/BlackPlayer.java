@@ -3,7 +3,6 @@ package com.chess.engine.player;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 import com.google.common.collect.ImmutableList;
@@ -13,10 +12,8 @@ import java.util.Collection;
 import java.util.List;
 
 public class BlackPlayer extends Player {
-    public BlackPlayer(final Board board,
-                       final Collection<Move> blackStandardMoves,
-                       final Collection<Move> whiteStandardMoves) {
-        super(board, blackStandardMoves, whiteStandardMoves);
+    public BlackPlayer(final Board board) {
+        super(board);
     }
     @Override
     public Collection<Piece> getActivePieces() {
@@ -34,46 +31,45 @@ public class BlackPlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegalMoves,
-                                                    final Collection<Move> opponentsLegalMoves) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegalMoves) {
         final List<Move> kingCastles = new ArrayList<>();
 
         // If it's kings first move and not incheck
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // White king side castle
-            if (!this.board.getTile(5).isTileOccupied() &&
-                    !this.board.getTile(6).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(7);
-                if (rookTile.isTileOccupied() &&
-                        rookTile.getPiece().isFirstMove() &&
-                        rookTile.getPiece().getPieceType().isRook()) {
-                    if (Player.calculateAttacksOnTile(5, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(6, opponentsLegalMoves).isEmpty()) {
+            if (!this.board.isTileOccupied(5) &&
+                    !this.board.isTileOccupied(6)) {
+                final Piece rookPiece = this.board.getPiece(7);
+                if (rookPiece != null &&
+                        rookPiece.isFirstMove() &&
+                        rookPiece.getPieceType().isRook()) {
+                    if (!this.board.isTileAttacked(5, getAlliance().opposite()) &&
+                            !this.board.isTileAttacked(6, getAlliance().opposite())) {
                         kingCastles.add(new Move.KingSideCastleMove(this.board,
                                 this.playerKing,
                                 6,
-                                (Rook)rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook)rookPiece,
+                                rookPiece.getPiecePosition(),
                                 5));
                     }
                 }
             }
             // White Queen side castle
-            if (!this.board.getTile(1).isTileOccupied() &&
-                    !this.board.getTile(2).isTileOccupied() &&
-                    !this.board.getTile(3).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(0);
-                if (rookTile.isTileOccupied() &&
-                        rookTile.getPiece().isFirstMove() &&
-                        rookTile.getPiece().getPieceType().isRook()) {
-                    if (Player.calculateAttacksOnTile(1, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(2, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(3, opponentsLegalMoves).isEmpty()) {
+            if (!this.board.isTileOccupied(1) &&
+                    !this.board.isTileOccupied(2) &&
+                    !this.board.isTileOccupied(3)) {
+                final Piece rookPiece = this.board.getPiece(0);
+                if (rookPiece != null &&
+                        rookPiece.isFirstMove() &&
+                        rookPiece.getPieceType().isRook()) {
+                    // King passes 3 and lands on 2, the tile next to the rook only has to be empty
+                    if (!this.board.isTileAttacked(2, getAlliance().opposite()) &&
+                            !this.board.isTileAttacked(3, getAlliance().opposite())) {
                         kingCastles.add(new Move.QueenSideCastleMove(this.board,
                                 this.playerKing,
                                 2,
-                                (Rook)rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook)rookPiece,
+                                rookPiece.getPiecePosition(),
                                 3));
                     }
                 }
@@ -2,46 +2,27 @@ package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.LegalMoveGenerator;
+import com.chess.engine.board.LegalMoveTable;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.*;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public abstract class Player {
 
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
+    private Collection<Move> legalMoves;    // Calculated on first access only
+    private LegalMoveTable legalMoveTable;  // Made on first lookup only
+    private Boolean isInCheck;              // Calculated on first access only
 
-    Player(final Board board,
-                   final Collection<Move> legalMoves,
-                   final Collection<Move> opponentMoves) {
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentMoves)));
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentMoves).isEmpty();   // Is the king under attack?
-    }
-
-    /**
-     * Check if TileLocation interfered OpponentLegalMove
-     * @param tileLocation tilePosition
-     * @param opponentMoves opponent moves that have to be checked
-     * @return  List of opponent move that interact with tileLocation
-     */
-    protected static Collection<Move> calculateAttacksOnTile(int tileLocation, Collection<Move> opponentMoves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for (final Move move : opponentMoves) {
-            if (tileLocation == move.getDestinationCoordinate()) { // Piece is in opponent move
-                attackMoves.add(move);
-            }
-        }
-        return ImmutableList.copyOf(attackMoves);
     }
 
     /**
@@ -59,32 +40,57 @@ public abstract class Player {
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegalMoves, Collection<Move> opponentsLegalMoves);
+    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegalMoves);
 
+    /**
+     * Constant time check through the from/to indexed table of legal moves
+     * @param move move to check
+     * @return true if the move is one of this player's legal moves
+     */
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        return getLegalMoveTable().contains(move);
+    }
+
+    /**
+     * @param currentCoordinate tile the piece leaves
+     * @param destinationCoordinate tile the piece lands on
+     * @return legal move between the two tiles (queen promotion for promotions), null if there is none
+     */
+    public Move getLegalMove(final int currentCoordinate, final int destinationCoordinate) {
+        return getLegalMoveTable().getMove(currentCoordinate, destinationCoordinate);
+    }
+
+    private LegalMoveTable getLegalMoveTable() {
+        if (this.legalMoveTable == null) {
+            this.legalMoveTable = new LegalMoveTable(getLegalMoves());
+        }
+        return this.legalMoveTable;
     }
 
+    /**
+     * Is the king under attack? Asked directly on the board, the opponent moves are not needed
+     * @return true if the king is attacked
+     */
     public boolean isInCheck() {
+        if (this.isInCheck == null) {
+            this.isInCheck = this.board.isTileAttacked(this.playerKing.getPiecePosition(), getAlliance().opposite());
+        }
         return this.isInCheck;
     }
 
     public boolean isCheckMate() {
-        return this.isInCheck && !hasEscapeMove();
+        return isInCheck() && !hasEscapeMove();
     }
 
     public boolean isStaleMate() {
-        return !hasEscapeMove() && !this.isInCheck;
+        return !hasEscapeMove() && !isInCheck();
     }
 
+    /**
+     * Legal moves are strictly legal, so any of them is an escape, no board is made to find out
+     */
     protected boolean hasEscapeMove() {
-        for (final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
-                return true;
-            }
-        }
-        return false;
+        return !getLegalMoves().isEmpty();
     }
 
     public boolean isCastled() {
@@ -95,20 +101,39 @@ public abstract class Player {
         return this.playerKing;
     }
 
+    /**
+     * Standard moves that do not leave the king in check plus castles, calculated the first time they are asked for
+     * Checkers and pinned pieces are found once (LegalMoveGenerator), instead of making a board per candidate
+     * @return all strictly legal moves of this player
+     */
     public Collection<Move> getLegalMoves() {
+        if (this.legalMoves == null) {
+            final Collection<Move> standardLegalMoves = this.board.getStandardLegalMoves(getAlliance());
+            final LegalMoveGenerator legalMoveGenerator = new LegalMoveGenerator(this.board, getAlliance());
+            this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoveGenerator.calculateLegalMoves(standardLegalMoves),
+                    calculateKingCastles(standardLegalMoves)));
+        }
         return this.legalMoves;
     }
 
     public MoveTransition makeMove(final Move move) {
         if (!isMoveLegal(move)) {
-            return new MoveTransition(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
+            // A move the pieces can make but which is not strictly legal leaves the king in check
+            return new MoveTransition(this.board, this.board, move,
+                    this.board.getStandardLegalMoves(getAlliance()).contains(move) ?
+                            MoveStatus.LEAVE_PLAYER_IN_CHECK : MoveStatus.ILLEGAL_MOVE);
         }
-        // Make transition board and pending waiting to check for status
-        final Board transitionBoard = move.execute();
+        return makeLegalMove(move);
+    }
 
-        return transitionBoard.getCurrentPlayer().getOpponent().isInCheck() ?
-                // Set status for next board, applying for next player: either incheck or normal
-                new MoveTransition(this.board, this.board, move, MoveStatus.LEAVE_PLAYER_IN_CHECK) :
-                new MoveTransition(this.board, transitionBoard, move, MoveStatus.DONE);
+    /**
+     * Trusted path for moves taken from getLegalMoves() of this player, such as the moves a search walks:
+     * the legality check and the legal move table it needs are skipped
+     * Legal moves never leave the king in check, the transition board is always done
+     * @param move one of getLegalMoves(), anything else gives a broken board
+     * @return transition to the board after the move
+     */
+    public MoveTransition makeLegalMove(final Move move) {
+        return new MoveTransition(this.board, move.execute(), move, MoveStatus.DONE);
     }
 }
@@ -3,7 +3,6 @@ package com.chess.engine.player;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 import com.google.common.collect.ImmutableList;
@@ -13,10 +12,8 @@ import java.util.Collection;
 import java.util.List;
 
 public class WhitePlayer extends Player{
-    public WhitePlayer(final Board board,
-                       final Collection<Move> whiteStandardLegalMoves,
-                       final Collection<Move> blackStandardLegalMove) {
-        super(board, whiteStandardLegalMoves, blackStandardLegalMove);
+    public WhitePlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -35,45 +32,45 @@ public class WhitePlayer extends Player{
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegalMoves, final Collection<Move> opponentsLegalMoves) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegalMoves) {
         final List<Move> kingCastles = new ArrayList<>();
 
         // If it's kings first move and not incheck
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // White king side castle
-            if (!this.board.getTile(61).isTileOccupied() &&
-                    !this.board.getTile(62).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(63);
-                if (rookTile.isTileOccupied() &&
-                        rookTile.getPiece().isFirstMove() &&
-                        rookTile.getPiece().getPieceType().isRook()) {
-                    if (Player.calculateAttacksOnTile(61, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(62, opponentsLegalMoves).isEmpty()) {
+            if (!this.board.isTileOccupied(61) &&
+                    !this.board.isTileOccupied(62)) {
+                final Piece rookPiece = this.board.getPiece(63);
+                if (rookPiece != null &&
+                        rookPiece.isFirstMove() &&
+                        rookPiece.getPieceType().isRook()) {
+                    if (!this.board.isTileAttacked(61, getAlliance().opposite()) &&
+                            !this.board.isTileAttacked(62, getAlliance().opposite())) {
                         kingCastles.add(new Move.KingSideCastleMove(this.board,
                                 this.playerKing,
                                 62,
-                                (Rook)rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook)rookPiece,
+                                rookPiece.getPiecePosition(),
                                 61));
                     }
                 }
             }
             // White Queen side castle
-            if (!this.board.getTile(59).isTileOccupied() &&
-                    !this.board.getTile(58).isTileOccupied() &&
-                    !this.board.getTile(57).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(56);
-                if (rookTile.isTileOccupied() &&
-                        rookTile.getPiece().isFirstMove() &&
-                        rookTile.getPiece().getPieceType().isRook()) {
-                    if (Player.calculateAttacksOnTile(57, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(58, opponentsLegalMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(59, opponentsLegalMoves).isEmpty()) {
+            if (!this.board.isTileOccupied(59) &&
+                    !this.board.isTileOccupied(58) &&
+                    !this.board.isTileOccupied(57)) {
+                final Piece rookPiece = this.board.getPiece(56);
+                if (rookPiece != null &&
+                        rookPiece.isFirstMove() &&
+                        rookPiece.getPieceType().isRook()) {
+                    // King passes 59 and lands on 58, the tile next to the rook only has to be empty
+                    if (!this.board.isTileAttacked(58, getAlliance().opposite()) &&
+                            !this.board.isTileAttacked(59, getAlliance().opposite())) {
                         kingCastles.add(new Move.QueenSideCastleMove(this.board,
                                 this.playerKing,
                                 58,
-                                (Rook)rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook)rookPiece,
+                                rookPiece.getPiecePosition(),
                                 59));
                     }
                 }
@@ -0,0 +1,574 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.StaticExchange;
+import com.chess.engine.nnue.Network;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.Player;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Iterative deepening alpha-beta search in negamax form over Board and Player.makeLegalMove
+ * Depth 1, 2, 3, ... are searched in turn until the depth limit is reached or the time is up,
+ * the result of the last completed depth is played, a depth cut short by the clock is thrown away
+ * The best root move of a depth is searched first at the next depth, so most cutoffs come early
+ * With a TranspositionTable, positions met again (by transposition or at the next depth) reuse the stored
+ * score when it was searched deep enough, otherwise their stored best move is searched first
+ * Moves are ordered by MoveOrderer and searched as a principal variation search: the first move with the full
+ * window, the others with a null window around alpha that only proves them worse, re-searched if they are not
+ * At depth 0 a quiescence search plays out captures and promotions until the position is quiet, so the
+ * evaluation is never taken in the middle of an exchange (horizon effect)
+ * Principal variation search: https://www.chessprogramming.org/Principal_Variation_Search
+ * Quiescence search: https://www.chessprogramming.org/Quiescence_Search
+ * Negamax: a score is always from the side to move, the child's score is negated (max(a, b) = -min(-a, -b))
+ * Alpha-beta: https://www.chessprogramming.org/Alpha-Beta
+ *             https://www.chessprogramming.org/Iterative_Deepening
+ *
+ * Usage: AlphaBetaSearch [-depth n] [-time ms] [-nodes n] [-clock ms [-inc ms] [-movestogo n]] [-overhead ms]
+ *                        [-hash MB] [-nnue file] [FEN]
+ *        search one position (standard board if no FEN), depth 6 if no limit is given
+ *        -hash 0 searches without transposition table
+ *        -nnue evaluates with the network of the file (NnueEvaluator) instead of TaperedEvaluator
+ */
+public final class AlphaBetaSearch implements MoveStrategy {
+
+    public static final int MATE_SCORE = 100_000;
+    public static final int INFINITY = MATE_SCORE + 1;
+
+    private static final int DELTA_MARGIN = 200;           // Positional swing a capture may bring on top of the piece
+
+    /**
+     * Lazy SMP helper threads skip some depths so they do not all search the same depth at the same time,
+     * helper i skips depth d when ((d + SKIP_PHASE[i]) / SKIP_SIZE[i]) is odd (same pattern as Stockfish)
+     */
+    private static final int[] SKIP_SIZE  = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final BoardEvaluator evaluator;
+    private final SearchLimits limits;
+    private final TranspositionTable transpositionTable;
+    private final Consumer<SearchResult> iterationListener;
+    private final int threadIndex;      // 0 for a single or main thread, 1.. for Lazy SMP helpers
+    private final MoveOrderer moveOrderer = new MoveOrderer();
+    private final TimeManager timeManager = new TimeManager();
+    private final SearchStatistics statistics = new SearchStatistics();
+    private final Move[][] pvTable = new Move[SearchLimits.MAX_DEPTH + 1][SearchLimits.MAX_DEPTH + 1];  // Triangular PV table
+    private final int[] pvLength = new int[SearchLimits.MAX_DEPTH + 1];
+    private final int[] swapList = StaticExchange.newSwapList();     // Quiescence pruning, the move orderer has its own
+
+    private long nodes;
+    private long startTime;
+    private volatile boolean stopped;
+    private SearchResult lastResult;
+
+    public AlphaBetaSearch(final BoardEvaluator evaluator,
+                           final SearchLimits limits) {
+        this(evaluator, limits, null, null);
+    }
+
+    /**
+     * @param evaluator evaluation used at the leaves
+     * @param limits depth and time limits of every search
+     * @param transpositionTable table of searched positions, may be shared with other searches, null for none
+     * @param iterationListener told about every completed depth, null if nobody listens
+     */
+    public AlphaBetaSearch(final BoardEvaluator evaluator,
+                           final SearchLimits limits,
+                           final TranspositionTable transpositionTable,
+                           final Consumer<SearchResult> iterationListener) {
+        this(evaluator, limits, transpositionTable, iterationListener, 0);
+    }
+
+    AlphaBetaSearch(final BoardEvaluator evaluator,
+                    final SearchLimits limits,
+                    final TranspositionTable transpositionTable,
+                    final Consumer<SearchResult> iterationListener,
+                    final int threadIndex) {
+        this.evaluator = evaluator;
+        this.limits = limits;
+        this.transpositionTable = transpositionTable;
+        this.iterationListener = iterationListener;
+        this.threadIndex = threadIndex;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board).getBestMove();
+    }
+
+    /**
+     * Stop the running search as soon as possible, may be called from another thread
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    void clearStop() {
+        this.stopped = false;
+    }
+
+    /**
+     * @return result of the last search, null before the first one
+     */
+    public SearchResult getLastResult() {
+        return this.lastResult;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * @return counters of the running or last search, written by the search thread
+     */
+    public SearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * @return time manager of the search, its statistics cover every search made with this instance
+     */
+    public TimeManager getTimeManager() {
+        return this.timeManager;
+    }
+
+    /**
+     * @return nodes searched so far by the running or last search, may be read from another thread
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Search the position within the limits
+     * @param board position to search
+     * @return result of the deepest completed depth, Move.MoveFactory.getNullMove() as best move if there is no legal move
+     */
+    public SearchResult search(final Board board) {
+        return search(board, this.limits);
+    }
+
+    /**
+     * Search the position within other limits than the ones of the constructor, like a clock that changes every move
+     * @param board position to search
+     * @param limits limits of this search only
+     * @return result of the deepest completed depth, Move.MoveFactory.getNullMove() as best move if there is no legal move
+     */
+    public SearchResult search(final Board board,
+                               final SearchLimits limits) {
+        this.stopped = false;
+        if (this.transpositionTable != null) {
+            this.transpositionTable.newSearch();
+        }
+        return search(board, limits, System.nanoTime());
+    }
+
+    /**
+     * Search without ageing the transposition table or clearing stop(), Lazy SMP threads share one table and one search
+     * and may be stopped before they get to start
+     * @param board position to search, its lazy state must be calculated if other threads search it too
+     * @param startTime System.nanoTime() the search started, the time limit counts from it
+     */
+    SearchResult search(final Board board,
+                        final long startTime) {
+        return search(board, this.limits, startTime);
+    }
+
+    private SearchResult search(final Board board,
+                                final SearchLimits limits,
+                                final long startTime) {
+        this.nodes = 0L;
+        this.statistics.reset();
+        this.moveOrderer.newSearch();
+        this.startTime = startTime;
+        this.timeManager.start(limits, startTime);
+
+        final Player player = board.getCurrentPlayer();
+        final List<Move> rootMoves = new ArrayList<>(player.getLegalMoves());
+        SearchResult result;
+        if (rootMoves.isEmpty()) {
+            result = new SearchResult(Move.MoveFactory.getNullMove(), player.isInCheck() ? -MATE_SCORE : 0, 0, new ArrayList<>(), 0L, 0L);
+        } else {
+            // Something to play even if depth 1 does not finish in time
+            result = new SearchResult(rootMoves.get(0), 0, 0, List.of(rootMoves.get(0)), 0L, 0L);
+            for (int depth = 1; depth <= limits.getMaxDepth(); depth++) {
+                if (isSkippedDepth(depth, limits.getMaxDepth())) {
+                    continue;
+                }
+                final int score = searchRoot(board, rootMoves, depth);
+                if (this.stopped) {
+                    break;
+                }
+                final List<Move> principalVariation = new ArrayList<>(this.pvLength[0]);
+                for (int i = 0; i < this.pvLength[0]; i++) {
+                    principalVariation.add(this.pvTable[0][i]);
+                }
+                result = new SearchResult(principalVariation.get(0), score, depth, principalVariation,
+                        this.nodes, System.nanoTime() - this.startTime);
+                if (this.iterationListener != null) {
+                    this.iterationListener.accept(result);
+                }
+                if (Math.abs(score) >= MATE_SCORE - depth) {
+                    break;      // Forced mate found, deeper search cannot change it
+                }
+                // Lazy SMP helpers leave the soft limit to the main thread, which stops them
+                if (this.threadIndex == 0 && this.timeManager.isSoftLimitReached(depth, EncodedMove.fromMove(result.getBestMove()), score)) {
+                    break;      // The next depth would most likely not finish or not change the move
+                }
+                // Best move first for the next depth
+                rootMoves.remove(result.getBestMove());
+                rootMoves.add(0, result.getBestMove());
+            }
+        }
+        this.timeManager.finish(System.nanoTime());
+        this.lastResult = result;
+        return result;
+    }
+
+    private boolean isSkippedDepth(final int depth,
+                                   final int maxDepth) {
+        if (this.threadIndex == 0 || depth == 1 || depth == maxDepth) {
+            return false;
+        }
+        final int helper = (this.threadIndex - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[helper]) / SKIP_SIZE[helper]) % 2 != 0;
+    }
+
+    private int searchRoot(final Board board,
+                           final List<Move> rootMoves,
+                           final int depth) {
+        final Player player = board.getCurrentPlayer();
+        int alpha = -INFINITY;
+        this.nodes++;
+        for (final Move move : rootMoves) {
+            final MoveTransition transition = player.makeLegalMove(move);
+            final int score = alpha == -INFINITY ?
+                    -alphaBeta(transition.getToBoard(), depth - 1, 1, -INFINITY, INFINITY) :
+                    principalVariationSearch(transition.getToBoard(), depth, 0, alpha, INFINITY);
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(0, move);
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Fail-soft negamax alpha-beta
+     * @param board position to search
+     * @param depth plies left
+     * @param ply plies from the root
+     * @param alpha score the side to move is already sure of
+     * @param beta score the opponent is already sure of, anything at or above it is refuted higher in the tree
+     * @return score of the position for the side to move
+     */
+    private int alphaBeta(final Board board,
+                          final int depth,
+                          final int ply,
+                          int alpha,
+                          final int beta) {
+        if (depth == 0) {
+            return quiescence(board, ply, alpha, beta);
+        }
+        this.pvLength[ply] = ply;
+        if (countNodeAndCheckStop()) {
+            return 0;
+        }
+
+        final long zobristKey = board.getZobristKey();
+        int tableMove = EncodedMove.NO_MOVE;
+        if (this.transpositionTable != null) {
+            final long entry = this.transpositionTable.probe(zobristKey);
+            if (entry != TranspositionTable.NO_ENTRY) {
+                tableMove = TranspositionTable.getMove(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    final int tableScore = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                    final int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.EXACT ||
+                            (bound == TranspositionTable.LOWER_BOUND && tableScore >= beta) ||
+                            (bound == TranspositionTable.UPPER_BOUND && tableScore <= alpha)) {
+                        this.statistics.recordTableCutoff();
+                        return tableScore;
+                    }
+                }
+            }
+        }
+
+        final Player player = board.getCurrentPlayer();
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        Move bestMove = null;
+        int movesSearched = 0;
+        final int moveCount = this.moveOrderer.scoreMoves(player.getLegalMoves(), tableMove, ply, player.getAlliance());
+        for (int i = 0; i < moveCount; i++) {
+            final Move move = this.moveOrderer.pickMove(ply, i, moveCount);
+            final MoveTransition transition = player.makeLegalMove(move);
+            final int score = movesSearched == 0 ?
+                    -alphaBeta(transition.getToBoard(), depth - 1, ply + 1, -beta, -alpha) :
+                    principalVariationSearch(transition.getToBoard(), depth, ply, alpha, beta);
+            movesSearched++;
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        this.statistics.recordBetaCutoff(movesSearched, this.moveOrderer.getScore(ply, i));
+                        if (MoveOrderer.isQuiet(move)) {
+                            this.moveOrderer.updateQuietCutoff(move, ply, depth, player.getAlliance());
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (movesSearched == 0) {
+            return player.isInCheck() ? -MATE_SCORE + ply : 0;     // Sooner mates score higher
+        }
+        if (this.transpositionTable != null) {
+            final int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND :
+                    bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+            this.transpositionTable.store(zobristKey, bestMove == null ? EncodedMove.NO_MOVE : EncodedMove.fromMove(bestMove),
+                    scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Search captures and promotions only (all moves when in check) until the position is quiet
+     * The side to move may stand pat: take the evaluation instead of capturing
+     * Captures are skipped when the captured piece plus DELTA_MARGIN cannot bring the score up to alpha (delta pruning),
+     * or when they lose material in the exchange that follows (StaticExchange)
+     * @return score of the position for the side to move
+     */
+    private int quiescence(final Board board,
+                           final int ply,
+                           int alpha,
+                           final int beta) {
+        this.pvLength[ply] = ply;
+        if (countNodeAndCheckStop()) {
+            return 0;
+        }
+        this.statistics.recordQuiescenceNode();
+        final Player player = board.getCurrentPlayer();
+        final boolean isInCheck = player.isInCheck();
+        if (ply >= SearchLimits.MAX_DEPTH) {
+            return evaluate(board, ply);
+        }
+        final int standPat = isInCheck ? -INFINITY : evaluate(board, ply);
+        if (standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        int bestScore = standPat;
+        final Collection<Move> legalMoves = player.getLegalMoves();
+        if (isInCheck && legalMoves.isEmpty()) {
+            return -MATE_SCORE + ply;
+        }
+        final int moveCount = isInCheck ?
+                this.moveOrderer.scoreMoves(legalMoves, EncodedMove.NO_MOVE, ply, player.getAlliance()) :
+                this.moveOrderer.scoreCaptures(legalMoves, ply);
+        for (int i = 0; i < moveCount; i++) {
+            final Move move = this.moveOrderer.pickMove(ply, i, moveCount);
+            if (!isInCheck && !(move instanceof Move.PawnPromotion)) {
+                if (standPat + move.getAttackedPiece().getPieceType().getPieceValue() + DELTA_MARGIN <= alpha) {
+                    this.statistics.recordDeltaPrune();
+                    continue;
+                }
+                if (StaticExchange.evaluate(move, this.swapList) < 0) {
+                    this.statistics.recordExchangePrune();
+                    continue;
+                }
+            }
+            final MoveTransition transition = player.makeLegalMove(move);
+            final int score = -quiescence(transition.getToBoard(), ply + 1, -beta, -alpha);
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Count the node and check the hard limits, the clock is only read now and then (see TimeManager)
+     * @return true if the search has to stop
+     */
+    private boolean countNodeAndCheckStop() {
+        this.nodes++;
+        if (this.timeManager.isHardLimitReached(this.nodes)) {
+            this.stopped = true;
+        }
+        return this.stopped;
+    }
+
+    /**
+     * Search a move after the first one of a node: a null window (alpha, alpha + 1) only proves the move is
+     * not better than alpha, which is cheaper than finding its score, the full window is searched again
+     * only when the proof fails
+     * @param child board after the move
+     * @param depth depth left at the parent
+     * @param ply ply of the parent
+     * @return score of the move for the parent
+     */
+    private int principalVariationSearch(final Board child,
+                                         final int depth,
+                                         final int ply,
+                                         final int alpha,
+                                         final int beta) {
+        final int score = -alphaBeta(child, depth - 1, ply + 1, -alpha - 1, -alpha);
+        if (score > alpha && score < beta && !this.stopped) {
+            this.statistics.recordPvsResearch();
+            return -alphaBeta(child, depth - 1, ply + 1, -beta, -alpha);
+        }
+        return score;
+    }
+
+    /**
+     * Mate scores count plies from the root, the table keeps them as plies from the stored position
+     * so the entry stays right when the position is reached at another ply
+     */
+    static int scoreToTable(final int score,
+                            final int ply) {
+        if (score >= MATE_SCORE - SearchLimits.MAX_DEPTH) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + SearchLimits.MAX_DEPTH) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    static int scoreFromTable(final int score,
+                              final int ply) {
+        if (score >= MATE_SCORE - SearchLimits.MAX_DEPTH) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + SearchLimits.MAX_DEPTH) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Evaluator scores are for white, negamax wants them for the side to move
+     */
+    private int evaluate(final Board board,
+                         final int ply) {
+        final int score = this.evaluator.evaluate(board, ply);
+        return board.getCurrentPlayer().getAlliance().isWhite() ? score : -score;
+    }
+
+    /**
+     * The PV at ply is the move followed by the PV of the child
+     */
+    private void updatePrincipalVariation(final int ply,
+                                          final Move move) {
+        this.pvTable[ply][ply] = move;
+        for (int i = ply + 1; i < this.pvLength[ply + 1]; i++) {
+            this.pvTable[ply][i] = this.pvTable[ply + 1][i];
+        }
+        this.pvLength[ply] = this.pvLength[ply + 1];
+    }
+
+    public static void main(final String[] args) {
+        final SearchLimits.Builder limitsBuilder = new SearchLimits.Builder();
+        boolean hasLimit = false;
+        long clock = 0L;
+        long increment = 0L;
+        int movesToGo = 0;
+        int hashMB = 16;
+        String networkFile = null;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-depth")) {
+                limitsBuilder.setDepth(Integer.parseInt(args[++argIndex]));
+                hasLimit = true;
+            } else if (args[argIndex].equals("-time")) {
+                limitsBuilder.setMoveTime(Long.parseLong(args[++argIndex]));
+                hasLimit = true;
+            } else if (args[argIndex].equals("-nodes")) {
+                limitsBuilder.setNodes(Long.parseLong(args[++argIndex]));
+                hasLimit = true;
+            } else if (args[argIndex].equals("-clock")) {
+                clock = Long.parseLong(args[++argIndex]);
+                hasLimit = true;
+            } else if (args[argIndex].equals("-inc")) {
+                increment = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-movestogo")) {
+                movesToGo = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-overhead")) {
+                limitsBuilder.setMoveOverhead(Long.parseLong(args[++argIndex]));
+            } else if (args[argIndex].equals("-hash")) {
+                hashMB = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-nnue")) {
+                networkFile = args[++argIndex];
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        if (!hasLimit) {
+            limitsBuilder.setDepth(6);
+        }
+        final SearchLimits limits = limitsBuilder.setClock(clock, increment, movesToGo).build();
+        final StringBuilder fen = new StringBuilder();
+        while (argIndex < args.length) {
+            fen.append(args[argIndex++]).append(' ');
+        }
+        final Board board = fen.length() == 0 ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen.toString());
+        System.out.println(board);
+        board.getCurrentPlayer().getLegalMoves();   // Build the attack tables before the clock starts
+
+        // Effective branching factor: nodes of a depth over nodes of the depth before
+        final long[] iterationNodes = {0L, 0L};     // Nodes before the last depth, nodes of the last depth
+        final BoardEvaluator evaluator = networkFile == null ? new TaperedEvaluator() :
+                new NnueEvaluator(Network.load(Paths.get(networkFile)));
+        System.out.println("limits: " + limits);
+        final AlphaBetaSearch search = new AlphaBetaSearch(evaluator, limits,
+                hashMB == 0 ? null : new TranspositionTable(hashMB), result -> {
+            final long nodes = result.getNodes() - iterationNodes[0];
+            System.out.println(result + (iterationNodes[1] == 0 ? "" :
+                    String.format(" ebf %.2f", (double) nodes / iterationNodes[1])));
+            iterationNodes[0] = result.getNodes();
+            iterationNodes[1] = nodes;
+        });
+        final SearchResult result = search.search(board);
+        System.out.println("bestmove " + (result.getBestMove() == Move.MoveFactory.getNullMove() ? "(none)" :
+                EncodedMove.toString(EncodedMove.fromMove(result.getBestMove()))));
+        System.out.println(search.getStatistics());
+        System.out.println(search.getTimeManager().getStatistics());
+        if (search.getTranspositionTable() != null) {
+            System.out.println(search.getTranspositionTable());
+        }
+        if (evaluator instanceof TaperedEvaluator) {
+            System.out.println(((TaperedEvaluator) evaluator).getPawnHashTable());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Static evaluation of a position, used at the leaves of the search
+ */
+public interface BoardEvaluator {
+
+    /**
+     * @param board position to evaluate
+     * @return score in centipawns, positive when white is better
+     */
+    int evaluate(Board board);
+
+    /**
+     * Evaluate a position of a search, evaluators that keep state per ply (NnueEvaluator) use the ply,
+     * the others evaluate as evaluate(Board) does
+     * @param board position to evaluate
+     * @param ply distance of the position from the root of the search
+     * @return score in centipawns, positive when white is better
+     */
+    default int evaluate(final Board board,
+                         final int ply) {
+        return evaluate(board);
+    }
+}
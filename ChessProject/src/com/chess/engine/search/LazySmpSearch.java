@@ -0,0 +1,251 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.Player;
+
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP: every thread runs its own iterative deepening search of the same root position and all of them
+ * share one TranspositionTable, the threads never talk to each other, the table does it for them
+ * Helpers skip depths in a staggered pattern (see AlphaBetaSearch), so the threads spread over depths and
+ * leave results in the table the others pick up
+ * The calling thread is the main thread: it searches within the limits, stops the helpers when it is done
+ * and reports the result of the deepest completed depth of all threads, nodes are counted over all threads
+ * Node limits need a single thread: every thread would count its own budget, and threads that race each other
+ * through a shared table never search the same tree twice, so a node limit would give neither the node count
+ * nor the repeatable result it is used for
+ * Lazy SMP: https://www.chessprogramming.org/Lazy_SMP
+ *
+ * Usage: LazySmpSearch [-threads 1,2,4,8] [-depth n] [-time ms] [-hash MB] [FEN]
+ *        searches the position once per thread count with an empty table and prints the scaling report:
+ *        time to depth and nodes per second against thread count
+ *        default thread counts are 1, 2, 4, ... up to the number of cores
+ */
+public final class LazySmpSearch implements MoveStrategy {
+
+    private final TranspositionTable transpositionTable;
+    private final AlphaBetaSearch[] searches;      // [0] is the main thread
+    private final Thread[] helperThreads;
+
+    /**
+     * @param evaluator evaluation used at the leaves
+     * @param limits limits of every search, a node limit only with 1 thread
+     * @param threadCount number of threads, the calling thread included
+     * @param transpositionTable table shared by all threads
+     * @param iterationListener told about every depth completed by the main thread, null if nobody listens
+     */
+    public LazySmpSearch(final BoardEvaluator evaluator,
+                         final SearchLimits limits,
+                         final int threadCount,
+                         final TranspositionTable transpositionTable,
+                         final Consumer<SearchResult> iterationListener) {
+        if (threadCount < 1) {
+            throw new RuntimeException("Search needs at least 1 thread, was " + threadCount);
+        }
+        if (threadCount > 1 && limits.hasNodeLimit()) {
+            throw new RuntimeException("Node limits need a single thread, " + threadCount + " threads were asked for");
+        }
+        if (transpositionTable == null) {
+            throw new RuntimeException("Lazy SMP threads need a shared transposition table");
+        }
+        this.transpositionTable = transpositionTable;
+        this.searches = new AlphaBetaSearch[threadCount];
+        this.searches[0] = new AlphaBetaSearch(evaluator, limits, transpositionTable, iterationListener, 0);
+        // Helpers run until the main thread stops them, they have all limits of the main thread but the depth
+        // as a guard against a main thread that never does (only the main thread stops at the soft time limit)
+        final SearchLimits helperLimits = new SearchLimits.Builder(limits).setDepth(SearchLimits.MAX_DEPTH).build();
+        for (int i = 1; i < threadCount; i++) {
+            this.searches[i] = new AlphaBetaSearch(evaluator, helperLimits, transpositionTable, null, i);
+        }
+        this.helperThreads = new Thread[threadCount - 1];
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return search(board).getBestMove();
+    }
+
+    /**
+     * Stop the running search as soon as possible, may be called from another thread
+     */
+    public void stop() {
+        for (final AlphaBetaSearch search : this.searches) {
+            search.stop();
+        }
+    }
+
+    public int getThreadCount() {
+        return this.searches.length;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * @return nodes searched so far by all threads, may be read from another thread
+     */
+    public long getNodes() {
+        long nodes = 0L;
+        for (final AlphaBetaSearch search : this.searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * @return time manager of the main thread, it decides when the search stops
+     */
+    public TimeManager getTimeManager() {
+        return this.searches[0].getTimeManager();
+    }
+
+    /**
+     * @return counters of all threads summed, read after the search
+     */
+    public SearchStatistics getStatistics() {
+        final SearchStatistics statistics = new SearchStatistics();
+        for (final AlphaBetaSearch search : this.searches) {
+            statistics.add(search.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Search the position with all threads within the limits
+     * @param board position to search
+     * @return deepest completed result of all threads with the nodes of all threads
+     */
+    public SearchResult search(final Board board) {
+        // Boards calculate their moves lazily, do it before the threads share the root board
+        final Player player = board.getCurrentPlayer();
+        player.isInCheck();
+        player.isMoveLegal(Move.MoveFactory.getNullMove());     // Builds the legal move table
+        try {
+            this.transpositionTable.newSearch();
+            for (final AlphaBetaSearch search : this.searches) {
+                search.clearStop();
+            }
+            final long startTime = System.nanoTime();
+            final SearchResult[] helperResults = new SearchResult[this.helperThreads.length];
+            for (int i = 0; i < this.helperThreads.length; i++) {
+                final int helper = i;
+                this.helperThreads[i] = new Thread(() -> helperResults[helper] = this.searches[helper + 1].search(board, startTime),
+                        "lazy-smp-helper-" + (i + 1));
+                this.helperThreads[i].setDaemon(true);
+                this.helperThreads[i].start();
+            }
+
+            SearchResult best = this.searches[0].search(board, startTime);
+            stopHelpers();
+            for (final SearchResult helperResult : helperResults) {
+                // A helper that got deeper than the main thread has the better result, the main thread wins ties
+                if (helperResult != null && helperResult.getDepth() > best.getDepth()) {
+                    best = helperResult;
+                }
+            }
+            return new SearchResult(best.getBestMove(), best.getScore(), best.getDepth(), best.getPrincipalVariation(),
+                    getNodes(), System.nanoTime() - startTime);
+        } finally {
+            // Also when the main thread fails: no helper may go on searching
+            stopHelpers();
+        }
+    }
+
+    /**
+     * Stop all threads and wait for the helpers to finish, an interrupt is kept for the caller instead of cutting the wait short
+     */
+    private void stopHelpers() {
+        stop();
+        boolean isInterrupted = false;
+        for (final Thread helperThread : this.helperThreads) {
+            while (helperThread != null && helperThread.isAlive()) {
+                try {
+                    helperThread.join();
+                } catch (final InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int[] defaultThreadCounts(final int cores) {
+        final int powersOfTwo = 32 - Integer.numberOfLeadingZeros(cores);
+        final boolean addCores = Integer.bitCount(cores) != 1;
+        final int[] threadCounts = new int[powersOfTwo + (addCores ? 1 : 0)];
+        for (int i = 0; i < powersOfTwo; i++) {
+            threadCounts[i] = 1 << i;
+        }
+        if (addCores) {
+            threadCounts[powersOfTwo] = cores;
+        }
+        return threadCounts;
+    }
+
+    public static void main(final String[] args) {
+        int[] threadCounts = defaultThreadCounts(Runtime.getRuntime().availableProcessors());
+        int depth = 0;
+        long time = 0L;
+        int hashMB = 64;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-threads")) {
+                final String[] counts = args[++argIndex].split(",");
+                threadCounts = new int[counts.length];
+                for (int i = 0; i < counts.length; i++) {
+                    threadCounts[i] = Integer.parseInt(counts[i]);
+                }
+            } else if (args[argIndex].equals("-depth")) {
+                depth = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-time")) {
+                time = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-hash")) {
+                hashMB = Integer.parseInt(args[++argIndex]);
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        if (depth == 0 && time == 0L) {
+            depth = 6;
+        }
+        final StringBuilder fen = new StringBuilder();
+        while (argIndex < args.length) {
+            fen.append(args[argIndex++]).append(' ');
+        }
+        final Board board = fen.length() == 0 ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen.toString());
+        System.out.println(board);
+        board.getCurrentPlayer().getLegalMoves();   // Build the attack tables before the clock starts
+
+        final TranspositionTable transpositionTable = new TranspositionTable(hashMB);
+        final TaperedEvaluator evaluator = new TaperedEvaluator();
+        final SearchLimits limits = new SearchLimits(depth, time);
+        System.out.println("limits: " + limits + ", hash " + hashMB + " MB");
+        System.out.printf("%7s %6s %10s %12s %12s %9s %9s  %s%n",
+                "threads", "depth", "time ms", "nodes", "nps", "speedup", "nps x", "best move");
+        SearchResult single = null;
+        for (final int threadCount : threadCounts) {
+            transpositionTable.clear();
+            evaluator.getPawnHashTable().clear();
+            final LazySmpSearch search = new LazySmpSearch(evaluator, limits, threadCount, transpositionTable, null);
+            final SearchResult result = search.search(board);
+            if (single == null) {
+                single = result;
+            }
+            System.out.printf("%7d %6d %10d %12d %12d %9.2f %9.2f  %s%n", threadCount, result.getDepth(),
+                    result.getElapsedMillis(), result.getNodes(), result.getNodesPerSecond(),
+                    (double) Math.max(single.getElapsedMillis(), 1) / Math.max(result.getElapsedMillis(), 1),
+                    (double) result.getNodesPerSecond() / Math.max(single.getNodesPerSecond(), 1),
+                    result.getBestMove() == Move.MoveFactory.getNullMove() ? "(none)" :
+                            EncodedMove.toString(EncodedMove.fromMove(result.getBestMove())));
+        }
+        System.out.println(evaluator.getPawnHashTable());
+    }
+}
@@ -0,0 +1,204 @@
+package com.chess.engine.search;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.StaticExchange;
+import com.chess.engine.pieces.Piece;
+
+import java.util.Collection;
+
+/**
+ * Orders the moves of a node so the move most likely to cause a cutoff is searched first
+ * Move scores, highest first:
+ *  - the transposition table move, best move of an earlier search of the position
+ *  - captures and promotions that do not lose material (StaticExchange), by MVV-LVA:
+ *    most valuable victim first, least valuable attacker breaks ties
+ *  - the 2 killer moves of the ply, quiet moves that caused a cutoff in a sibling node
+ *  - other quiet moves by their butterfly history, how often [side][from][to] caused a cutoff anywhere
+ *  - captures that lose material, by MVV-LVA
+ * Moves are picked one at a time (selection sort), most nodes cut off after the first few so sorting the
+ * whole list would be wasted work
+ * Buffers are kept per ply, ordering allocates nothing
+ * Move ordering: https://www.chessprogramming.org/Move_Ordering
+ *                https://www.chessprogramming.org/MVV-LVA
+ *                https://www.chessprogramming.org/Killer_Heuristic
+ *                https://www.chessprogramming.org/History_Heuristic
+ */
+public final class MoveOrderer {
+
+    public static final int TABLE_MOVE_SCORE = 4_000_000;
+    public static final int CAPTURE_SCORE = 3_000_000;
+    public static final int FIRST_KILLER_SCORE = 2_000_000;
+    public static final int SECOND_KILLER_SCORE = 1_900_000;
+    public static final int LOSING_CAPTURE_SCORE = -1_000_000;
+
+    private static final int HISTORY_MAX = 1_000_000;   // History stays below the killers, halved when reached
+
+    private final Move[][] moves = new Move[SearchLimits.MAX_DEPTH + 1][MoveList.MAX_MOVES];
+    private final int[][] scores = new int[SearchLimits.MAX_DEPTH + 1][MoveList.MAX_MOVES];
+    private final int[][] killers = new int[SearchLimits.MAX_DEPTH + 1][2];
+    private final int[][][] history = new int[Alliance.values().length][BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    private final int[] swapList = StaticExchange.newSwapList();
+
+    /**
+     * Start of a new search: killers are forgotten, history is halved so recent cutoffs count most
+     */
+    public void newSearch() {
+        for (final int[] plyKillers : this.killers) {
+            plyKillers[0] = EncodedMove.NO_MOVE;
+            plyKillers[1] = EncodedMove.NO_MOVE;
+        }
+        ageHistory();
+    }
+
+    /**
+     * Score the moves of a node, pick them in order with pickMove()
+     * @param legalMoves moves of the node
+     * @param tableMove best move from the transposition table, EncodedMove.NO_MOVE if none
+     * @param ply plies from the root
+     * @param alliance side to move
+     * @return number of moves
+     */
+    public int scoreMoves(final Collection<Move> legalMoves,
+                          final int tableMove,
+                          final int ply,
+                          final Alliance alliance) {
+        final Move[] plyMoves = this.moves[ply];
+        final int[] plyScores = this.scores[ply];
+        final int[] plyKillers = this.killers[ply];
+        final int[][] sideHistory = this.history[alliance.ordinal()];
+        int count = 0;
+        for (final Move move : legalMoves) {
+            final int encodedMove = EncodedMove.fromMove(move);
+            final int score;
+            if (encodedMove == tableMove) {
+                score = TABLE_MOVE_SCORE;
+            } else if (!isQuiet(move)) {
+                score = (StaticExchange.evaluate(move, this.swapList) >= 0 ? CAPTURE_SCORE : LOSING_CAPTURE_SCORE) + mvvLva(move);
+            } else if (encodedMove == plyKillers[0]) {
+                score = FIRST_KILLER_SCORE;
+            } else if (encodedMove == plyKillers[1]) {
+                score = SECOND_KILLER_SCORE;
+            } else {
+                score = sideHistory[move.getCurrentCoordinate()][move.getDestinationCoordinate()];
+            }
+            plyMoves[count] = move;
+            plyScores[count] = score;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Score only the captures and promotions of a node by MVV-LVA, for the quiescence search
+     * @param legalMoves moves of the node
+     * @param ply plies from the root
+     * @return number of captures and promotions
+     */
+    public int scoreCaptures(final Collection<Move> legalMoves,
+                             final int ply) {
+        final Move[] plyMoves = this.moves[ply];
+        final int[] plyScores = this.scores[ply];
+        int count = 0;
+        for (final Move move : legalMoves) {
+            if (!isQuiet(move)) {
+                plyMoves[count] = move;
+                plyScores[count] = mvvLva(move);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bring the best of the moves not picked yet to index and return it
+     * @param ply ply the moves were scored for
+     * @param index number of moves already picked
+     * @param count number of moves scored
+     * @return next move to search
+     */
+    public Move pickMove(final int ply,
+                         final int index,
+                         final int count) {
+        final Move[] plyMoves = this.moves[ply];
+        final int[] plyScores = this.scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        final Move move = plyMoves[best];
+        final int score = plyScores[best];
+        plyMoves[best] = plyMoves[index];
+        plyScores[best] = plyScores[index];
+        plyMoves[index] = move;
+        plyScores[index] = score;
+        return move;
+    }
+
+    /**
+     * @return score of the move picked at index, tells the move ordering stage it came from
+     */
+    public int getScore(final int ply,
+                        final int index) {
+        return this.scores[ply][index];
+    }
+
+    /**
+     * A quiet move caused a beta cutoff: make it the first killer of the ply and raise its history
+     * @param move move that cut off
+     * @param ply plies from the root
+     * @param depth depth left, cutoffs far from the leaves count more
+     * @param alliance side that made the move
+     */
+    public void updateQuietCutoff(final Move move,
+                                  final int ply,
+                                  final int depth,
+                                  final Alliance alliance) {
+        final int encodedMove = EncodedMove.fromMove(move);
+        final int[] plyKillers = this.killers[ply];
+        if (plyKillers[0] != encodedMove) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = encodedMove;
+        }
+        final int[] fromHistory = this.history[alliance.ordinal()][move.getCurrentCoordinate()];
+        fromHistory[move.getDestinationCoordinate()] += depth * depth;
+        if (fromHistory[move.getDestinationCoordinate()] >= HISTORY_MAX) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * @return true if the move neither captures nor promotes
+     */
+    public static boolean isQuiet(final Move move) {
+        return !move.isAttack() && !(move instanceof Move.PawnPromotion);
+    }
+
+    /**
+     * Most valuable victim, least valuable attacker: victim value * 10 minus attacker value / 100
+     * (a pawn taking a queen 9000 - 1, a queen taking a pawn 1000 - 9), a promotion adds its piece as victim
+     */
+    public static int mvvLva(final Move move) {
+        final Piece attackedPiece = move.getAttackedPiece();
+        int score = attackedPiece == null ? 0 : attackedPiece.getPieceType().getPieceValue() * 10;
+        if (move instanceof Move.PawnPromotion) {
+            score += ((Move.PawnPromotion) move).getPromotedPiece().getPieceType().getPieceValue() * 10;
+        }
+        return score - move.getMovedPiece().getPieceType().getPieceValue() / 100;
+    }
+
+    private void ageHistory() {
+        for (final int[][] sideHistory : this.history) {
+            for (final int[] fromHistory : sideHistory) {
+                for (int i = 0; i < fromHistory.length; i++) {
+                    fromHistory[i] /= 2;
+                }
+            }
+        }
+    }
+}
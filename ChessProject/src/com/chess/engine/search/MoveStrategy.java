@@ -0,0 +1,17 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Anything that picks a move for the player to move: a searcher, a book, a random mover
+ * Players and tools depend on this interface only, so search algorithms can be swapped
+ */
+public interface MoveStrategy {
+
+    /**
+     * @param board position to play from
+     * @return move chosen for the current player, Move.MoveFactory.getNullMove() if there is no legal move
+     */
+    Move execute(Board board);
+}
@@ -0,0 +1,240 @@
+package com.chess.engine.search;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.nnue.Accumulator;
+import com.chess.engine.nnue.Network;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Evaluation by an NNUE Network, an alternative to TaperedEvaluator
+ * The Accumulators live here, not in the positions: every thread gets a stack of them, one per ply of the search
+ * (evaluate(Board, int)), each remembering the position it holds
+ * A position is worked out from the nearest one the stack knows, the one the ply above holds (usually its parent)
+ * or the one its own ply held last (usually a sibling), by the few pieces they differ in, evaluating then only runs
+ * the output layer; a position far from both (a new root, another game) is calculated from scratch
+ * Positions are compared by identity, which is safe because a Board never changes its pieces
+ *
+ * Usage: NnueEvaluator [-hidden n] [-save file] [network file]
+ *        evaluations per second of TaperedEvaluator against the network on positions of random games: in game order
+ *        and over the children of a position (what a search asks for), and from scratch for every position
+ *        without a network file a random network of the hidden size (default 256) is used, -save writes it out
+ *        run with --add-modules jdk.incubator.vector for the SIMD loops
+ */
+public final class NnueEvaluator implements BoardEvaluator {
+
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    private final Network network;
+    private final ThreadLocal<AccumulatorStack> accumulatorStacks;     // Lazy SMP threads share the evaluator
+
+    /**
+     * @param network network to evaluate with
+     */
+    public NnueEvaluator(final Network network) {
+        this.network = network;
+        this.accumulatorStacks = ThreadLocal.withInitial(() -> new AccumulatorStack(network));
+    }
+
+    public Network getNetwork() {
+        return this.network;
+    }
+
+    /**
+     * Outside a search all positions share the stack entry of ply 0, positions looked at one after the other
+     * (the moves of a game) still only pay for the pieces that changed
+     */
+    @Override
+    public int evaluate(final Board board) {
+        return evaluate(board, 0);
+    }
+
+    @Override
+    public int evaluate(final Board board,
+                        final int ply) {
+        final Alliance sideToMove = board.getCurrentPlayer().getAlliance();
+        final int score = this.network.evaluate(accumulatorOf(board, ply), sideToMove);
+        return sideToMove.isWhite() ? score : -score;
+    }
+
+    private Accumulator accumulatorOf(final Board board,
+                                      final int ply) {
+        return this.accumulatorStacks.get().accumulatorOf(board.getBitBoard(), ply);
+    }
+
+    /**
+     * One accumulator per ply, preallocated, with the position it was last brought to
+     */
+    private static final class AccumulatorStack {
+
+        private final Accumulator[] accumulators;
+        private final BitBoard[] positions;     // Null until the accumulator of the ply is first used
+
+        AccumulatorStack(final Network network) {
+            this.accumulators = new Accumulator[SearchLimits.MAX_DEPTH + 1];
+            this.positions = new BitBoard[SearchLimits.MAX_DEPTH + 1];
+            for (int i = 0; i < this.accumulators.length; i++) {
+                this.accumulators[i] = new Accumulator(network);
+            }
+        }
+
+        Accumulator accumulatorOf(final BitBoard bitBoard,
+                                  final int ply) {
+            final int index = Math.min(ply, this.accumulators.length - 1);
+            final Accumulator accumulator = this.accumulators[index];
+            final BitBoard position = this.positions[index];
+            if (position == bitBoard) {
+                return accumulator;
+            }
+            final BitBoard parent = index > 0 ? this.positions[index - 1] : null;
+            final int ownChanges = position == null ? Integer.MAX_VALUE : Accumulator.countChanges(position, bitBoard);
+            final int parentChanges = parent == null ? Integer.MAX_VALUE : Accumulator.countChanges(parent, bitBoard);
+            if (Math.min(ownChanges, parentChanges) >= Long.bitCount(bitBoard.getOccupancy())) {
+                accumulator.refresh(bitBoard);      // As many changes as pieces, starting over costs no more
+            } else if (parentChanges < ownChanges) {
+                accumulator.copyFrom(this.accumulators[index - 1]);
+                accumulator.update(parent, bitBoard);
+            } else {
+                accumulator.update(position, bitBoard);
+            }
+            this.positions[index] = bitBoard;
+            return accumulator;
+        }
+    }
+
+    /**
+     * Run an evaluation over all boards again and again for about a second
+     * @return evaluations per second
+     */
+    private static long measure(final List<Board> boards,
+                                final BoardEvaluator evaluator,
+                                final long[] sink) {
+        long evaluations = 0L;
+        final long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (final Board board : boards) {
+                sink[0] += evaluator.evaluate(board);
+            }
+            evaluations += boards.size();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return evaluations * 1_000_000_000L / elapsed;
+    }
+
+    /**
+     * Evaluate every parent at ply 0 and its children at ply 1, again and again for about a second
+     * @return evaluations per second
+     */
+    private static long measureChildren(final List<Board> parents,
+                                        final List<List<Board>> children,
+                                        final NnueEvaluator evaluator,
+                                        final long[] sink) {
+        long evaluations = 0L;
+        final long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < parents.size(); i++) {
+                sink[0] += evaluator.evaluate(parents.get(i), 0);
+                for (final Board child : children.get(i)) {
+                    sink[0] += evaluator.evaluate(child, 1);
+                }
+                evaluations += 1 + children.get(i).size();
+            }
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return evaluations * 1_000_000_000L / elapsed;
+    }
+
+    public static void main(final String[] args) {
+        int hiddenSize = 256;
+        String saveFile = null;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-hidden")) {
+                hiddenSize = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-save")) {
+                saveFile = args[++argIndex];
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        final Network network = argIndex < args.length ? Network.load(Paths.get(args[argIndex])) :
+                Network.random(hiddenSize, 1L);
+        if (saveFile != null) {
+            network.save(Paths.get(saveFile));
+        }
+        final NnueEvaluator nnueEvaluator = new NnueEvaluator(network);
+        final TaperedEvaluator taperedEvaluator = new TaperedEvaluator();
+        // What the network would cost without incremental updates: every evaluation starts from the pieces
+        final BoardEvaluator refreshingEvaluator = board -> network.evaluate(new Accumulator(network, board.getBitBoard()),
+                board.getCurrentPlayer().getAlliance());
+
+        // Positions of random games, each checked against a refresh as the stack moves from one to the next
+        final Random random = new Random(1L);
+        final List<Board> boards = new ArrayList<>();
+        final List<Board> parents = new ArrayList<>();
+        final List<List<Board>> children = new ArrayList<>();
+        int mismatches = 0;
+        while (boards.size() < 2000) {
+            Board board = Board.createStandardBoard();
+            for (int ply = 0; ply < 80; ply++) {
+                final List<Move> legalMoves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                if (ply % 10 == 0) {
+                    parents.add(board);
+                    final List<Board> boardChildren = new ArrayList<>();
+                    for (final Move move : legalMoves) {
+                        boardChildren.add(board.getCurrentPlayer().makeLegalMove(move).getToBoard());
+                    }
+                    children.add(boardChildren);
+                }
+                board = board.getCurrentPlayer().makeLegalMove(legalMoves.get(random.nextInt(legalMoves.size()))).getToBoard();
+                if (!nnueEvaluator.accumulatorOf(board, 0).sameValues(new Accumulator(network, board.getBitBoard()))) {
+                    mismatches++;
+                }
+                boards.add(board);
+            }
+        }
+        int childCount = 0;
+        for (int i = 0; i < parents.size(); i++) {
+            nnueEvaluator.accumulatorOf(parents.get(i), 0);
+            for (final Board child : children.get(i)) {
+                if (!nnueEvaluator.accumulatorOf(child, 1).sameValues(new Accumulator(network, child.getBitBoard()))) {
+                    mismatches++;
+                }
+                childCount++;
+            }
+        }
+        System.out.println("network: hidden " + network.getHiddenSize() + ", " + Network.describeKernels());
+        System.out.println((boards.size() + childCount) + " positions, incremental accumulators matching a refresh: " +
+                (boards.size() + childCount - mismatches) + "/" + (boards.size() + childCount));
+
+        final long[] sink = {0L};
+        for (int round = 0; round < 2; round++) {      // First round warms up the JIT
+            final long tapered = measure(boards, taperedEvaluator, sink);
+            final long nnue = measure(boards, nnueEvaluator, sink);
+            final long nnueChildren = measureChildren(parents, children, nnueEvaluator, sink);
+            final long refresh = measure(boards, refreshingEvaluator, sink);
+            if (round == 1) {
+                System.out.printf("%-34s %,14d evaluations/s%n", "handcrafted (TaperedEvaluator)", tapered);
+                System.out.printf("%-34s %,14d evaluations/s  %.2fx handcrafted%n", "nnue, positions in game order",
+                        nnue, (double) nnue / tapered);
+                System.out.printf("%-34s %,14d evaluations/s  %.2fx handcrafted%n", "nnue, children of a position",
+                        nnueChildren, (double) nnueChildren / tapered);
+                System.out.printf("%-34s %,14d evaluations/s  %.2fx handcrafted%n", "nnue, accumulator from scratch",
+                        refresh, (double) refresh / tapered);
+            }
+        }
+        System.out.println("checksum " + sink[0]);
+    }
+}
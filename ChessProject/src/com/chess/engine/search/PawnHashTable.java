@@ -0,0 +1,104 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.PawnStructure;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size cache of pawn structure scores keyed by the pawn key of the board (BitBoard.getPawnKey())
+ * Pawns move far less often than the other pieces, most positions of a search share their pawn structure
+ * with thousands of others and PawnStructure.evaluate() only runs once for each of them
+ * An entry is two longs: the key XOR the score, and the score, lockless like the TranspositionTable,
+ * so the threads of a Lazy SMP search can share one table, a torn entry is simply missed and evaluated again
+ * An empty entry reads as key 0 and score 0, exactly the entry of a board without pawns
+ * Pawn hash table: https://www.chessprogramming.org/Pawn_Hash_Table
+ */
+public final class PawnHashTable {
+
+    public static final int DEFAULT_SIZE_MB = 1;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+    private static final long SCORE_MASK = 0xFFFFFFFFL;
+
+    private final long[] table;
+    private final long indexMask;
+    private final int sizeMB;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param sizeMB memory used by the table, rounded down to a power of 2 number of entries
+     */
+    public PawnHashTable(final int sizeMB) {
+        if (sizeMB < 1) {
+            throw new RuntimeException("Pawn hash table needs at least 1 MB, was " + sizeMB);
+        }
+        final long entries = Long.highestOneBit((long) sizeMB * 1024 * 1024 / BYTES_PER_ENTRY);
+        if (entries * LONGS_PER_ENTRY > Integer.MAX_VALUE - 8) {
+            throw new RuntimeException("Pawn hash table of " + sizeMB + " MB is too large");
+        }
+        this.table = new long[(int) (entries * LONGS_PER_ENTRY)];
+        this.indexMask = entries - 1;
+        this.sizeMB = sizeMB;
+    }
+
+    /**
+     * @param bitBoard position to evaluate
+     * @return PawnStructure.evaluate() of the position, from the table if its pawn structure was seen before
+     */
+    public int getPackedScore(final BitBoard bitBoard) {
+        final long key = bitBoard.getPawnKey();
+        final int index = (int) (key & this.indexMask) * LONGS_PER_ENTRY;
+        final long data = this.table[index + 1];
+        if ((this.table[index] ^ data) == key) {
+            this.hits.increment();
+            return (int) data;
+        }
+        this.misses.increment();
+        final int score = PawnStructure.evaluate(bitBoard);
+        final long newData = score & SCORE_MASK;
+        this.table[index] = key ^ newData;
+        this.table[index + 1] = newData;
+        return score;
+    }
+
+    /**
+     * Empty the table and reset the counters
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.hits.reset();
+        this.misses.reset();
+    }
+
+    public int getSizeMB() {
+        return this.sizeMB;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return share of the lookups answered by the table
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long lookups = hits + getMisses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pawn hash %d MB: %d hits, %d misses (%.1f%% hit rate)",
+                this.sizeMB, getHits(), getMisses(), 100.0 * getHitRate());
+    }
+}
@@ -0,0 +1,212 @@
+package com.chess.engine.search;
+
+/**
+ * When to stop searching, whichever limit comes first:
+ *  - depth: after that depth is completed
+ *  - move time: a fixed time for the move
+ *  - nodes: a fixed node budget
+ *  - clock: time left on the clock, increment per move and moves to the next time control, TimeManager allocates
+ *    a share of it to the move
+ *  - deadline: a wall clock time (System.currentTimeMillis()) the move has to be made by
+ * 0 means no limit, at least one limit must be set
+ * Move overhead is kept off every time limit, time lost between the search returning and the move arriving
+ */
+public final class SearchLimits {
+
+    public static final int MAX_DEPTH = 64;
+
+    private final int maxDepth;
+    private final long maxTimeMillis;
+    private final long maxNodes;
+    private final long clockMillis;
+    private final long incrementMillis;
+    private final int movesToGo;
+    private final long deadlineMillis;
+    private final long moveOverheadMillis;
+
+    public SearchLimits(final int maxDepth, final long maxTimeMillis) {
+        this(new Builder().setDepth(maxDepth).setMoveTime(maxTimeMillis));
+    }
+
+    private SearchLimits(final Builder builder) {
+        if (builder.maxDepth < 0 || builder.maxDepth > MAX_DEPTH) {
+            throw new RuntimeException("Depth must be between 0 and " + MAX_DEPTH + ", was " + builder.maxDepth);
+        }
+        if (builder.maxTimeMillis < 0 || builder.maxNodes < 0 || builder.clockMillis < 0 || builder.incrementMillis < 0 ||
+                builder.movesToGo < 0 || builder.deadlineMillis < 0 || builder.moveOverheadMillis < 0) {
+            throw new RuntimeException("Limits must not be negative");
+        }
+        if (builder.maxDepth == 0 && builder.maxTimeMillis == 0 && builder.maxNodes == 0 && builder.clockMillis == 0 &&
+                builder.deadlineMillis == 0) {
+            throw new RuntimeException("Search needs a depth, time, node, clock or deadline limit");
+        }
+        this.maxDepth = builder.maxDepth == 0 ? MAX_DEPTH : builder.maxDepth;
+        this.maxTimeMillis = builder.maxTimeMillis;
+        this.maxNodes = builder.maxNodes;
+        this.clockMillis = builder.clockMillis;
+        this.incrementMillis = builder.incrementMillis;
+        this.movesToGo = builder.movesToGo;
+        this.deadlineMillis = builder.deadlineMillis;
+        this.moveOverheadMillis = builder.moveOverheadMillis;
+    }
+
+    public static SearchLimits depth(final int maxDepth) {
+        return new SearchLimits(maxDepth, 0);
+    }
+
+    public static SearchLimits time(final long maxTimeMillis) {
+        return new SearchLimits(0, maxTimeMillis);
+    }
+
+    public static SearchLimits nodes(final long maxNodes) {
+        return new Builder().setNodes(maxNodes).build();
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * @return fixed time for the move, 0 if none
+     */
+    public long getMaxTimeMillis() {
+        return this.maxTimeMillis;
+    }
+
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    public long getClockMillis() {
+        return this.clockMillis;
+    }
+
+    public long getIncrementMillis() {
+        return this.incrementMillis;
+    }
+
+    public int getMovesToGo() {
+        return this.movesToGo;
+    }
+
+    public long getDeadlineMillis() {
+        return this.deadlineMillis;
+    }
+
+    public long getMoveOverheadMillis() {
+        return this.moveOverheadMillis;
+    }
+
+    /**
+     * @return true if the search is limited by move time, clock or deadline
+     */
+    public boolean hasTimeLimit() {
+        return this.maxTimeMillis > 0 || this.clockMillis > 0 || this.deadlineMillis > 0;
+    }
+
+    public boolean hasNodeLimit() {
+        return this.maxNodes > 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("depth " + this.maxDepth);
+        if (this.maxTimeMillis > 0) {
+            builder.append(", time ").append(this.maxTimeMillis).append(" ms");
+        }
+        if (this.maxNodes > 0) {
+            builder.append(", nodes ").append(this.maxNodes);
+        }
+        if (this.clockMillis > 0) {
+            builder.append(", clock ").append(this.clockMillis).append(" ms + ").append(this.incrementMillis).append(" ms");
+            if (this.movesToGo > 0) {
+                builder.append(", ").append(this.movesToGo).append(" moves to go");
+            }
+        }
+        if (this.deadlineMillis > 0) {
+            builder.append(", deadline in ").append(this.deadlineMillis - System.currentTimeMillis()).append(" ms");
+        }
+        if (this.moveOverheadMillis > 0) {
+            builder.append(", overhead ").append(this.moveOverheadMillis).append(" ms");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Set the limits wanted, 0 or not set means no limit
+     */
+    public static class Builder {
+        int maxDepth;
+        long maxTimeMillis;
+        long maxNodes;
+        long clockMillis;
+        long incrementMillis;
+        int movesToGo;
+        long deadlineMillis;
+        long moveOverheadMillis;
+
+        public Builder() {
+        }
+
+        /**
+         * Start from all limits of existing limits, to change some of them
+         * @param limits limits to copy
+         */
+        public Builder(final SearchLimits limits) {
+            this.maxDepth = limits.maxDepth;
+            this.maxTimeMillis = limits.maxTimeMillis;
+            this.maxNodes = limits.maxNodes;
+            this.clockMillis = limits.clockMillis;
+            this.incrementMillis = limits.incrementMillis;
+            this.movesToGo = limits.movesToGo;
+            this.deadlineMillis = limits.deadlineMillis;
+            this.moveOverheadMillis = limits.moveOverheadMillis;
+        }
+
+        public Builder setDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder setMoveTime(final long maxTimeMillis) {
+            this.maxTimeMillis = maxTimeMillis;
+            return this;
+        }
+
+        public Builder setNodes(final long maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        /**
+         * @param clockMillis time left on the clock of the side to move
+         * @param incrementMillis time added to the clock after every move
+         * @param movesToGo moves until the next time control, 0 if the time has to last the whole game
+         */
+        public Builder setClock(final long clockMillis,
+                                final long incrementMillis,
+                                final int movesToGo) {
+            this.clockMillis = clockMillis;
+            this.incrementMillis = incrementMillis;
+            this.movesToGo = movesToGo;
+            return this;
+        }
+
+        /**
+         * @param deadlineMillis System.currentTimeMillis() the move has to be made by
+         */
+        public Builder setDeadline(final long deadlineMillis) {
+            this.deadlineMillis = deadlineMillis;
+            return this;
+        }
+
+        public Builder setMoveOverhead(final long moveOverheadMillis) {
+            this.moveOverheadMillis = moveOverheadMillis;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.Move;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one completed iteration of the search: best move, score, principal variation and the node count
+ * Score is in centipawns for the player to move, mates are reported as +-(MATE_SCORE - plies to mate)
+ */
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final List<Move> principalVariation;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public SearchResult(final Move bestMove,
+                        final int score,
+                        final int depth,
+                        final List<Move> principalVariation,
+                        final long nodes,
+                        final long elapsedNanos) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedNanos / 1_000_000L;
+    }
+
+    public long getNodesPerSecond() {
+        return this.elapsedNanos == 0 ? 0L : this.nodes * 1_000_000_000L / this.elapsedNanos;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(this.score) >= AlphaBetaSearch.MATE_SCORE - SearchLimits.MAX_DEPTH;
+    }
+
+    /**
+     * Same shape as a UCI info line: depth 6 score cp 35 nodes 123456 nps 456789 time 270 pv e2e4 e7e5
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(this.depth).append(" score ");
+        if (isMateScore()) {
+            final int plies = AlphaBetaSearch.MATE_SCORE - Math.abs(this.score);
+            builder.append("mate ").append(this.score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            builder.append("cp ").append(this.score);
+        }
+        builder.append(" nodes ").append(this.nodes)
+               .append(" nps ").append(getNodesPerSecond())
+               .append(" time ").append(getElapsedMillis())
+               .append(" pv");
+        for (final Move move : this.principalVariation) {
+            builder.append(' ').append(EncodedMove.toString(EncodedMove.fromMove(move)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,162 @@
+package com.chess.engine.search;
+
+/**
+ * Counters of one search, they show how well the move ordering works:
+ * a well ordered search cuts off on the first move almost every time and rarely re-searches a PVS move
+ * Plain longs written by one search thread, add() sums the threads of a Lazy SMP search
+ */
+public final class SearchStatistics {
+
+    private long betaCutoffs;
+    private long firstMoveCutoffs;
+    private long movesBeforeCutoff;     // Moves searched at nodes that cut off, cutoff move included
+    private long tableMoveCutoffs;
+    private long captureCutoffs;
+    private long killerCutoffs;
+    private long historyCutoffs;
+    private long tableCutoffs;          // Nodes answered by the transposition table without a search
+    private long pvsResearches;
+    private long quiescenceNodes;
+    private long deltaPrunes;           // Captures skipped because even winning the piece could not reach alpha
+    private long exchangePrunes;        // Captures skipped because they lose material (StaticExchange)
+
+    public void reset() {
+        this.betaCutoffs = 0L;
+        this.firstMoveCutoffs = 0L;
+        this.movesBeforeCutoff = 0L;
+        this.tableMoveCutoffs = 0L;
+        this.captureCutoffs = 0L;
+        this.killerCutoffs = 0L;
+        this.historyCutoffs = 0L;
+        this.tableCutoffs = 0L;
+        this.pvsResearches = 0L;
+        this.quiescenceNodes = 0L;
+        this.deltaPrunes = 0L;
+        this.exchangePrunes = 0L;
+    }
+
+    public void add(final SearchStatistics other) {
+        this.betaCutoffs += other.betaCutoffs;
+        this.firstMoveCutoffs += other.firstMoveCutoffs;
+        this.movesBeforeCutoff += other.movesBeforeCutoff;
+        this.tableMoveCutoffs += other.tableMoveCutoffs;
+        this.captureCutoffs += other.captureCutoffs;
+        this.killerCutoffs += other.killerCutoffs;
+        this.historyCutoffs += other.historyCutoffs;
+        this.tableCutoffs += other.tableCutoffs;
+        this.pvsResearches += other.pvsResearches;
+        this.quiescenceNodes += other.quiescenceNodes;
+        this.deltaPrunes += other.deltaPrunes;
+        this.exchangePrunes += other.exchangePrunes;
+    }
+
+    /**
+     * @param movesSearched moves searched at the node, cutoff move included
+     * @param orderingScore MoveOrderer score of the cutoff move
+     */
+    void recordBetaCutoff(final int movesSearched,
+                          final int orderingScore) {
+        this.betaCutoffs++;
+        this.movesBeforeCutoff += movesSearched;
+        if (movesSearched == 1) {
+            this.firstMoveCutoffs++;
+        }
+        if (orderingScore >= MoveOrderer.TABLE_MOVE_SCORE) {
+            this.tableMoveCutoffs++;
+        } else if (orderingScore >= MoveOrderer.CAPTURE_SCORE || orderingScore < 0) {
+            this.captureCutoffs++;
+        } else if (orderingScore >= MoveOrderer.SECOND_KILLER_SCORE) {
+            this.killerCutoffs++;
+        } else {
+            this.historyCutoffs++;
+        }
+    }
+
+    void recordTableCutoff() {
+        this.tableCutoffs++;
+    }
+
+    void recordPvsResearch() {
+        this.pvsResearches++;
+    }
+
+    void recordQuiescenceNode() {
+        this.quiescenceNodes++;
+    }
+
+    void recordDeltaPrune() {
+        this.deltaPrunes++;
+    }
+
+    void recordExchangePrune() {
+        this.exchangePrunes++;
+    }
+
+    public long getBetaCutoffs() {
+        return this.betaCutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return this.firstMoveCutoffs;
+    }
+
+    public long getTableMoveCutoffs() {
+        return this.tableMoveCutoffs;
+    }
+
+    public long getCaptureCutoffs() {
+        return this.captureCutoffs;
+    }
+
+    public long getKillerCutoffs() {
+        return this.killerCutoffs;
+    }
+
+    public long getHistoryCutoffs() {
+        return this.historyCutoffs;
+    }
+
+    public long getTableCutoffs() {
+        return this.tableCutoffs;
+    }
+
+    public long getPvsResearches() {
+        return this.pvsResearches;
+    }
+
+    public long getQuiescenceNodes() {
+        return this.quiescenceNodes;
+    }
+
+    public long getDeltaPrunes() {
+        return this.deltaPrunes;
+    }
+
+    public long getExchangePrunes() {
+        return this.exchangePrunes;
+    }
+
+    /**
+     * @return share of cutoffs made by the first move searched, 1.0 for perfect ordering
+     */
+    public double getFirstMoveCutoffRate() {
+        return this.betaCutoffs == 0 ? 0.0 : (double) this.firstMoveCutoffs / this.betaCutoffs;
+    }
+
+    /**
+     * @return average number of moves searched at a node before it cut off
+     */
+    public double getAverageMovesBeforeCutoff() {
+        return this.betaCutoffs == 0 ? 0.0 : (double) this.movesBeforeCutoff / this.betaCutoffs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cutoffs %d (%.1f%% on first move, %.2f moves per cutoff): table move %d, captures %d, " +
+                        "killers %d, history %d; table cutoffs %d, pvs re-searches %d; " +
+                        "quiescence nodes %d, delta prunes %d, exchange prunes %d",
+                this.betaCutoffs, 100.0 * getFirstMoveCutoffRate(), getAverageMovesBeforeCutoff(), this.tableMoveCutoffs,
+                this.captureCutoffs, this.killerCutoffs, this.historyCutoffs, this.tableCutoffs, this.pvsResearches,
+                this.quiescenceNodes, this.deltaPrunes, this.exchangePrunes);
+    }
+}
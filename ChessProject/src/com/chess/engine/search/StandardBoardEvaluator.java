@@ -0,0 +1,29 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Material count: sum of PieceType values of white minus the sum of black
+ * Kept cheap on purpose, the evaluation runs at every leaf and should not hide the speed of the search
+ */
+public final class StandardBoardEvaluator implements BoardEvaluator {
+
+    public static final StandardBoardEvaluator INSTANCE = new StandardBoardEvaluator();
+
+    private StandardBoardEvaluator() {
+    }
+
+    @Override
+    public int evaluate(final Board board) {
+        return material(board.getWhitePieces()) - material(board.getBlackPieces());
+    }
+
+    private static int material(final Iterable<Piece> pieces) {
+        int material = 0;
+        for (final Piece piece : pieces) {
+            material += piece.getPieceType().getPieceValue();
+        }
+        return material;
+    }
+}
@@ -0,0 +1,40 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.PawnStructure;
+import com.chess.engine.board.PieceSquareTables;
+
+/**
+ * Material + piece square tables + pawn structure, blended from middlegame to endgame values by game phase
+ * Material and piece square tables are kept up to date by the BitBoard of the position as moves are made,
+ * pawn structure comes from the PawnHashTable, so evaluating costs O(1) unless the pawn structure is new
+ * The pawn hash table is lockless, one evaluator can be shared by the threads of a Lazy SMP search
+ */
+public final class TaperedEvaluator implements BoardEvaluator {
+
+    private final PawnHashTable pawnHashTable;
+
+    public TaperedEvaluator() {
+        this(new PawnHashTable(PawnHashTable.DEFAULT_SIZE_MB));
+    }
+
+    /**
+     * @param pawnHashTable cache of the pawn structure scores
+     */
+    public TaperedEvaluator(final PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return this.pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(final Board board) {
+        final BitBoard bitBoard = board.getBitBoard();
+        final int packedScore = bitBoard.getPackedScore() + this.pawnHashTable.getPackedScore(bitBoard) +
+                PawnStructure.kingShield(bitBoard);
+        return PieceSquareTables.taper(packedScore, bitBoard.getGamePhase());
+    }
+}
@@ -0,0 +1,302 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+
+/**
+ * Turns the SearchLimits of a move into a soft and a hard limit and tells the search when to stop
+ *  - hard limit: the search stops wherever it is, checked on the hot path: a node count compared with the next
+ *    check point, the clock is only read every checkInterval nodes, the interval is tuned from the measured
+ *    speed so the clock is read about every quarter millisecond
+ *  - soft limit: checked after every completed depth, iterative deepening does not go on past it
+ *    A best move that stayed the same for several depths shrinks it (the search is unlikely to change its mind),
+ *    a best move that just changed or a score that drops stretches it, never past the hard limit
+ * Limits per kind of SearchLimits:
+ *  - move time: hard limit only, the whole time is searched
+ *  - clock: soft = clock / moves to go (DEFAULT_MOVES_TO_GO if not given) + 3/4 increment,
+ *           hard = HARD_LIMIT_FACTOR x soft, never more than MAX_CLOCK_SHARE of the clock
+ *  - deadline: hard = time left until it, soft = half of that
+ *  - nodes: hard limit on the node count of this search thread, so LazySmpSearch takes node limits with one thread only
+ * Move overhead is taken off every time limit first
+ * Budget: the time the caller gave the move (move time, time to the deadline, the clock share before the overhead is
+ * taken off), TimeStatistics counts a search that returns after it as an overrun, the hard limit sits below it
+ * One per search thread, statistics add up over all its searches
+ * Time management: https://www.chessprogramming.org/Time_Management
+ *
+ * Usage: TimeManager [-clock ms] [-inc ms] [-movestogo n] [-time ms] [-nodes n] [-deadline ms] [-overhead ms]
+ *                    [-moves n] [fen]
+ *        plays a game against itself (default 40 moves on a 10 s + 100 ms clock), every side on its own clock: the
+ *        time a move took is taken off, the increment added, moves to go start again at the time control
+ *        -deadline gives every move that many ms from when it starts, prints the limits and the time taken per move
+ *        then the TimeStatistics, a flag fall is a move that took more than the clock had left
+ */
+public final class TimeManager {
+
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final double MAX_CLOCK_SHARE = 0.8;
+    private static final double DEADLINE_SOFT_SHARE = 0.5;
+    private static final int SCORE_DROP_MARGIN = 30;        // Centipawns lost between depths that buy more time
+
+    private static final long CHECK_NANOS = 250_000L;       // Aim for a clock read every quarter millisecond
+    private static final long INITIAL_CHECK_INTERVAL = 1024;
+    private static final long MIN_CHECK_INTERVAL = 1;
+    private static final long MAX_CHECK_INTERVAL = 1 << 16;
+    private static final long MIN_TIME_NANOS = 1_000_000L;  // Every timed search gets at least 1 ms
+
+    private final TimeStatistics statistics = new TimeStatistics();
+
+    private long startTime;
+    private long softLimitNanos;
+    private long hardLimitNanos;
+    private long budgetNanos;
+    private long hardDeadline;          // System.nanoTime() of the hard limit
+    private long maxNodes;
+    private long nextCheckNodes;
+    private long checkInterval;
+
+    private int lastBestMove;
+    private int lastScore;
+    private int stableDepths;           // Depths in a row the best move did not change
+
+    /**
+     * Allocate the limits of a new search
+     * @param limits limits of the move
+     * @param startTime System.nanoTime() the search started
+     */
+    public void start(final SearchLimits limits,
+                      final long startTime) {
+        this.startTime = startTime;
+        this.softLimitNanos = NO_LIMIT;
+        this.hardLimitNanos = NO_LIMIT;
+        this.budgetNanos = NO_LIMIT;
+        final long overheadNanos = limits.getMoveOverheadMillis() * 1_000_000L;
+        if (limits.getMaxTimeMillis() > 0) {
+            this.hardLimitNanos = Math.max(limits.getMaxTimeMillis() * 1_000_000L - overheadNanos, MIN_TIME_NANOS);
+            this.budgetNanos = limits.getMaxTimeMillis() * 1_000_000L;
+        }
+        if (limits.getClockMillis() > 0) {
+            final long clockNanos = Math.max(limits.getClockMillis() * 1_000_000L - overheadNanos, MIN_TIME_NANOS);
+            final int movesToGo = limits.getMovesToGo() > 0 ?
+                    Math.min(limits.getMovesToGo(), MAX_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+            final long hardNanos = Math.max((long) (clockNanos * MAX_CLOCK_SHARE), MIN_TIME_NANOS);
+            final long softNanos = clockNanos / movesToGo + limits.getIncrementMillis() * 1_000_000L * 3 / 4;
+            final long moveHardNanos = Math.min(softNanos * HARD_LIMIT_FACTOR, hardNanos);
+            this.softLimitNanos = Math.min(this.softLimitNanos, Math.min(softNanos, hardNanos));
+            this.hardLimitNanos = Math.min(this.hardLimitNanos, moveHardNanos);
+            this.budgetNanos = Math.min(this.budgetNanos, moveHardNanos + overheadNanos);
+        }
+        if (limits.getDeadlineMillis() > 0) {
+            final long deadlineNanos = (limits.getDeadlineMillis() - System.currentTimeMillis()) * 1_000_000L +
+                    (System.nanoTime() - startTime);    // Time from the start of the search to the deadline
+            final long hardNanos = Math.max(deadlineNanos - overheadNanos, MIN_TIME_NANOS);
+            this.budgetNanos = Math.min(this.budgetNanos, Math.max(deadlineNanos, 0L));
+            this.softLimitNanos = Math.min(this.softLimitNanos, (long) (hardNanos * DEADLINE_SOFT_SHARE));
+            this.hardLimitNanos = Math.min(this.hardLimitNanos, hardNanos);
+        }
+        this.softLimitNanos = Math.min(this.softLimitNanos, this.hardLimitNanos);
+        this.hardDeadline = this.hardLimitNanos == NO_LIMIT ? NO_LIMIT : startTime + this.hardLimitNanos;
+        this.maxNodes = limits.hasNodeLimit() ? limits.getMaxNodes() : NO_LIMIT;
+        this.checkInterval = INITIAL_CHECK_INTERVAL;
+        this.nextCheckNodes = Math.min(this.maxNodes, this.checkInterval);
+        this.stableDepths = 0;
+        this.lastBestMove = 0;
+        this.lastScore = 0;
+    }
+
+    /**
+     * Hot path, called for every node: one compare unless a check point is reached
+     * @param nodes nodes searched so far
+     * @return true if the search has to stop now
+     */
+    public boolean isHardLimitReached(final long nodes) {
+        return nodes >= this.nextCheckNodes && checkHardLimit(nodes);
+    }
+
+    private boolean checkHardLimit(final long nodes) {
+        if (nodes >= this.maxNodes) {
+            this.statistics.recordNodeStop();
+            this.nextCheckNodes = NO_LIMIT;     // Recorded once, the search unwinds on its stop flag
+            return true;
+        }
+        final long now = System.nanoTime();
+        if (now >= this.hardDeadline) {
+            this.statistics.recordHardStop();
+            this.nextCheckNodes = NO_LIMIT;
+            return true;
+        }
+        final long elapsed = now - this.startTime;
+        if (elapsed > 0) {
+            this.checkInterval = Math.max(MIN_CHECK_INTERVAL, Math.min(MAX_CHECK_INTERVAL, nodes * CHECK_NANOS / elapsed));
+        }
+        this.nextCheckNodes = Math.min(this.maxNodes, nodes + this.checkInterval);
+        return false;
+    }
+
+    /**
+     * Called after every completed depth of iterative deepening
+     * @param depth depth completed
+     * @param bestMove best move of the depth (EncodedMove)
+     * @param score score of the depth
+     * @return true if no further depth should be started
+     */
+    public boolean isSoftLimitReached(final int depth,
+                                      final int bestMove,
+                                      final int score) {
+        double scale = 1.0;
+        if (depth > 1) {
+            if (bestMove == this.lastBestMove) {
+                this.stableDepths++;
+                scale = this.stableDepths >= 4 ? 0.5 : this.stableDepths >= 2 ? 0.75 : 1.0;
+            } else {
+                this.stableDepths = 0;
+                scale = 1.5;
+            }
+            if (score < this.lastScore - SCORE_DROP_MARGIN) {
+                scale = Math.max(scale, 1.5);
+            }
+        }
+        this.lastBestMove = bestMove;
+        this.lastScore = score;
+        if (this.softLimitNanos == NO_LIMIT) {
+            return false;
+        }
+        final long limit = Math.min((long) (this.softLimitNanos * scale), this.hardLimitNanos);
+        if (System.nanoTime() - this.startTime >= limit) {
+            this.statistics.recordSoftStop(scale < 1.0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when the search returns, records the time taken against the budget and the hard limit
+     * @param endTime System.nanoTime() the search returned
+     */
+    public void finish(final long endTime) {
+        this.statistics.recordSearch(endTime - this.startTime, this.hardLimitNanos, this.budgetNanos);
+    }
+
+    /**
+     * @return soft limit of the current or last search, NO_LIMIT if none
+     */
+    public long getSoftLimitNanos() {
+        return this.softLimitNanos;
+    }
+
+    /**
+     * @return hard limit of the current or last search, NO_LIMIT if none
+     */
+    public long getHardLimitNanos() {
+        return this.hardLimitNanos;
+    }
+
+    /**
+     * @return time the caller gave the current or last search, NO_LIMIT if none
+     */
+    public long getBudgetNanos() {
+        return this.budgetNanos;
+    }
+
+    public TimeStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public static void main(final String[] args) {
+        long clock = 0L;
+        long increment = 0L;
+        int movesToGo = 0;
+        long moveTime = 0L;
+        long nodes = 0L;
+        long deadline = 0L;
+        long overhead = 0L;
+        int moves = 40;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-clock")) {
+                clock = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-inc")) {
+                increment = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-movestogo")) {
+                movesToGo = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-time")) {
+                moveTime = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-nodes")) {
+                nodes = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-deadline")) {
+                deadline = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-overhead")) {
+                overhead = Long.parseLong(args[++argIndex]);
+            } else if (args[argIndex].equals("-moves")) {
+                moves = Integer.parseInt(args[++argIndex]);
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        if (clock == 0L && moveTime == 0L && nodes == 0L && deadline == 0L) {
+            clock = 10_000L;
+            increment = 100L;
+        }
+        final StringBuilder fen = new StringBuilder();
+        while (argIndex < args.length) {
+            fen.append(args[argIndex++]).append(' ');
+        }
+        Board board = fen.length() == 0 ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen.toString());
+        board.getCurrentPlayer().getLegalMoves();   // Build the attack tables before the clock starts
+
+        final AlphaBetaSearch search = new AlphaBetaSearch(new TaperedEvaluator(), SearchLimits.depth(SearchLimits.MAX_DEPTH),
+                new TranspositionTable(16), null);
+        final long[] clocks = {clock, clock};       // Side to move at the start, the other side
+        int flagFalls = 0;
+        for (int ply = 0; ply < 2 * moves; ply++) {
+            final int side = ply % 2;
+            final int movesLeft = movesToGo == 0 ? 0 : movesToGo - (ply / 2) % movesToGo;
+            final SearchLimits.Builder limitsBuilder = new SearchLimits.Builder()
+                    .setMoveTime(moveTime)
+                    .setNodes(nodes)
+                    .setMoveOverhead(overhead);
+            if (clock > 0L) {
+                limitsBuilder.setClock(Math.max(clocks[side], 1L), increment, movesLeft);
+            }
+            if (deadline > 0L) {
+                limitsBuilder.setDeadline(System.currentTimeMillis() + deadline);
+            }
+            final long start = System.nanoTime();
+            final SearchResult result = search.search(board, limitsBuilder.build());
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+            if (result.getBestMove() == Move.MoveFactory.getNullMove()) {
+                break;
+            }
+            if (clock > 0L) {
+                if (elapsedMillis > clocks[side]) {
+                    flagFalls++;
+                }
+                clocks[side] += increment - elapsedMillis;
+                if (movesToGo > 0 && movesLeft == 1) {
+                    clocks[side] += clock;
+                }
+            }
+            final TimeManager timeManager = search.getTimeManager();
+            System.out.printf("%3d%s %-6s depth %2d  soft %7s  hard %7s  budget %7s  took %5d ms%s%n", ply / 2 + 1,
+                    side == 0 ? ". " : "..", EncodedMove.toString(EncodedMove.fromMove(result.getBestMove())),
+                    result.getDepth(), toMillis(timeManager.getSoftLimitNanos()), toMillis(timeManager.getHardLimitNanos()),
+                    toMillis(timeManager.getBudgetNanos()),
+                    elapsedMillis, clock > 0L ? "  clock " + clocks[side] + " ms" : "");
+            board = board.getCurrentPlayer().makeMove(result.getBestMove()).getToBoard();
+        }
+        System.out.println(search.getTimeManager().getStatistics());
+        if (clock > 0L) {
+            System.out.println("flag falls " + flagFalls);
+        }
+    }
+
+    private static String toMillis(final long nanos) {
+        return nanos == NO_LIMIT ? "-" : String.format("%.1f", nanos / 1e6);
+    }
+}
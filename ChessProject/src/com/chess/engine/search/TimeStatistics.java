@@ -0,0 +1,159 @@
+package com.chess.engine.search;
+
+/**
+ * Counters of the TimeManager over all searches since the last reset: why searches stopped, how often and by how
+ * much they ran past the budget the caller gave them (overruns, the numbers a latency budget is checked against),
+ * and how long after the internal hard limit they returned (stop latency, what the move overhead has to cover)
+ * Plain longs written by the search thread, read them after a search
+ */
+public final class TimeStatistics {
+
+    private long searches;
+    private long timedSearches;         // Searches with a time budget
+    private long softStops;             // Iterative deepening not continued past the soft limit
+    private long earlyStops;            // Soft stops made before the soft limit because the best move was stable
+    private long hardStops;             // Searches cut off in the middle of a depth by the hard time limit
+    private long nodeStops;
+    private long overruns;              // Timed searches that returned after their budget
+    private long totalOverrunNanos;
+    private long maxOverrunNanos;
+    private long lateStops;             // Timed searches that returned after their hard limit, part of the overhead
+    private long totalStopLatencyNanos;
+    private long maxStopLatencyNanos;
+    private long maxElapsedNanos;
+
+    public void reset() {
+        this.searches = 0L;
+        this.timedSearches = 0L;
+        this.softStops = 0L;
+        this.earlyStops = 0L;
+        this.hardStops = 0L;
+        this.nodeStops = 0L;
+        this.overruns = 0L;
+        this.totalOverrunNanos = 0L;
+        this.maxOverrunNanos = 0L;
+        this.lateStops = 0L;
+        this.totalStopLatencyNanos = 0L;
+        this.maxStopLatencyNanos = 0L;
+        this.maxElapsedNanos = 0L;
+    }
+
+    /**
+     * @param elapsedNanos time the search took
+     * @param hardLimitNanos hard time limit of the search, TimeManager.NO_LIMIT if it had none
+     * @param budgetNanos time the caller gave the search, TimeManager.NO_LIMIT if none
+     */
+    void recordSearch(final long elapsedNanos,
+                      final long hardLimitNanos,
+                      final long budgetNanos) {
+        this.searches++;
+        this.maxElapsedNanos = Math.max(this.maxElapsedNanos, elapsedNanos);
+        if (budgetNanos == TimeManager.NO_LIMIT) {
+            return;
+        }
+        this.timedSearches++;
+        final long overrun = elapsedNanos - budgetNanos;
+        if (overrun > 0) {
+            this.overruns++;
+            this.totalOverrunNanos += overrun;
+            this.maxOverrunNanos = Math.max(this.maxOverrunNanos, overrun);
+        }
+        final long stopLatency = elapsedNanos - hardLimitNanos;
+        if (stopLatency > 0) {
+            this.lateStops++;
+            this.totalStopLatencyNanos += stopLatency;
+            this.maxStopLatencyNanos = Math.max(this.maxStopLatencyNanos, stopLatency);
+        }
+    }
+
+    void recordSoftStop(final boolean early) {
+        this.softStops++;
+        if (early) {
+            this.earlyStops++;
+        }
+    }
+
+    void recordHardStop() {
+        this.hardStops++;
+    }
+
+    void recordNodeStop() {
+        this.nodeStops++;
+    }
+
+    public long getSearches() {
+        return this.searches;
+    }
+
+    public long getTimedSearches() {
+        return this.timedSearches;
+    }
+
+    public long getSoftStops() {
+        return this.softStops;
+    }
+
+    public long getEarlyStops() {
+        return this.earlyStops;
+    }
+
+    public long getHardStops() {
+        return this.hardStops;
+    }
+
+    public long getNodeStops() {
+        return this.nodeStops;
+    }
+
+    public long getOverruns() {
+        return this.overruns;
+    }
+
+    public long getMaxOverrunNanos() {
+        return this.maxOverrunNanos;
+    }
+
+    public long getLateStops() {
+        return this.lateStops;
+    }
+
+    public long getMaxStopLatencyNanos() {
+        return this.maxStopLatencyNanos;
+    }
+
+    public long getMaxElapsedNanos() {
+        return this.maxElapsedNanos;
+    }
+
+    /**
+     * @return share of the timed searches that returned after their budget
+     */
+    public double getOverrunRate() {
+        return this.timedSearches == 0 ? 0.0 : (double) this.overruns / this.timedSearches;
+    }
+
+    /**
+     * @return average time past the budget of the searches that overran
+     */
+    public double getAverageOverrunMillis() {
+        return this.overruns == 0 ? 0.0 : this.totalOverrunNanos / 1e6 / this.overruns;
+    }
+
+    /**
+     * @return average time past the hard limit of the searches that returned after it
+     */
+    public double getAverageStopLatencyMillis() {
+        return this.lateStops == 0 ? 0.0 : this.totalStopLatencyNanos / 1e6 / this.lateStops;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("searches %d (%d timed): soft stops %d (%d early on a stable best move), hard stops %d, " +
+                        "node stops %d; budget overruns %d (%.1f%%), average %.3f ms, max %.3f ms; " +
+                        "past the hard limit %d, average %.3f ms, max %.3f ms; longest search %.1f ms",
+                this.searches, this.timedSearches, this.softStops, this.earlyStops, this.hardStops, this.nodeStops,
+                this.overruns, 100.0 * getOverrunRate(), getAverageOverrunMillis(), this.maxOverrunNanos / 1e6,
+                this.lateStops, getAverageStopLatencyMillis(), this.maxStopLatencyNanos / 1e6,
+                this.maxElapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,229 @@
+package com.chess.engine.search;
+
+import com.chess.engine.board.EncodedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size hash table of searched positions keyed by the Zobrist key of the board
+ * An entry is two longs: the key XOR the data, and the data
+ *  data bits  0 - 15  best move (EncodedMove)
+ *       bits 16 - 35  score, offset to stay positive
+ *       bits 36 - 43  depth
+ *       bits 44 - 45  bound (upper, lower, exact), 0 for an empty entry
+ *       bits 46 - 53  age, the search the entry was stored by
+ * Lockless: threads read and write without synchronization, an entry torn by two threads writing at once
+ * no longer satisfies key ^ data == key and is simply missed
+ * Entries are grouped in buckets of 4 (64 bytes, one cache line), a new entry replaces the same position,
+ * otherwise the shallowest entry, entries of older searches first
+ * Transposition table: https://www.chessprogramming.org/Transposition_Table
+ *                      https://www.chessprogramming.org/Shared_Hash_Table#Lockless
+ */
+public final class TranspositionTable {
+
+    public static final long NO_ENTRY = 0L;
+    public static final int UPPER_BOUND = 1, LOWER_BOUND = 2, EXACT = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int SCORE_SHIFT = 16, SCORE_BITS = 20, SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+    private static final int DEPTH_SHIFT = 36, DEPTH_MASK = 0xFF;
+    private static final int BOUND_SHIFT = 44, BOUND_MASK = 0x3;
+    private static final int AGE_SHIFT = 46, AGE_MASK = 0xFF;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final int sizeMB;
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * @param sizeMB memory used by the table, rounded down to a power of 2 number of buckets
+     */
+    public TranspositionTable(final int sizeMB) {
+        if (sizeMB < 1) {
+            throw new RuntimeException("Transposition table needs at least 1 MB, was " + sizeMB);
+        }
+        final long buckets = Long.highestOneBit((long) sizeMB * 1024 * 1024 / (BYTES_PER_ENTRY * BUCKET_SIZE));
+        final long longs = buckets * BUCKET_SIZE * LONGS_PER_ENTRY;
+        if (longs > Integer.MAX_VALUE - 8) {
+            throw new RuntimeException("Transposition table of " + sizeMB + " MB is too large");
+        }
+        this.table = new long[(int) longs];
+        this.bucketMask = buckets - 1;
+        this.sizeMB = sizeMB;
+    }
+
+    /**
+     * Start of a new search, entries of earlier searches become the first to be replaced
+     */
+    public void newSearch() {
+        this.age = (this.age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Empty the table and reset the counters
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.age = 0;
+        this.hits.reset();
+        this.misses.reset();
+        this.collisions.reset();
+    }
+
+    /**
+     * @param key Zobrist key of the position
+     * @return data of the position, NO_ENTRY if it is not in the table
+     */
+    public long probe(final long key) {
+        final int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if ((this.table[i] ^ data) == key && data != NO_ENTRY) {
+                this.hits.increment();
+                return data;
+            }
+        }
+        this.misses.increment();
+        return NO_ENTRY;
+    }
+
+    /**
+     * @param key Zobrist key of the position
+     * @param move best move found (EncodedMove), EncodedMove.NO_MOVE if none
+     * @param score score of the position, mate scores relative to the position (see AlphaBetaSearch)
+     * @param depth depth searched
+     * @param bound UPPER_BOUND if no move reached alpha, LOWER_BOUND after a beta cutoff, EXACT otherwise
+     */
+    public void store(final long key,
+                      final int move,
+                      final int score,
+                      final int depth,
+                      final int bound) {
+        final int currentAge = this.age;
+        final int bucket = bucketIndex(key);
+        final int bucketEnd = bucket + BUCKET_SIZE * LONGS_PER_ENTRY;
+        for (int i = bucket; i < bucketEnd; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if (data != NO_ENTRY && (this.table[i] ^ data) == key) {
+                // Same position, keep its best move if the new search has none
+                store(i, key, move == EncodedMove.NO_MOVE ? getMove(data) : move, score, depth, bound, currentAge);
+                return;
+            }
+        }
+        int replace = bucket;
+        int replaceWorth = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucketEnd; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if (data == NO_ENTRY) {
+                replace = i;
+                break;
+            }
+            // Entries of older searches are worth less than any entry of this search
+            final int worth = getDepth(data) - (getAge(data) == currentAge ? 0 : 2 * DEPTH_MASK);
+            if (worth < replaceWorth) {
+                replace = i;
+                replaceWorth = worth;
+            }
+        }
+        if (this.table[replace + 1] != NO_ENTRY) {
+            this.collisions.increment();     // A different position is overwritten
+        }
+        store(replace, key, move, score, depth, bound, currentAge);
+    }
+
+    private void store(final int index,
+                       final long key,
+                       final int move,
+                       final int score,
+                       final int depth,
+                       final int bound,
+                       final int age) {
+        final long data = pack(move, score, depth, bound, age);
+        this.table[index] = key ^ data;
+        this.table[index + 1] = data;
+    }
+
+    private int bucketIndex(final long key) {
+        return (int) (key & this.bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+    }
+
+    private static long pack(final int move,
+                             final int score,
+                             final int depth,
+                             final int bound,
+                             final int age) {
+        return (move & MOVE_MASK) |
+               ((long) (score + SCORE_OFFSET) << SCORE_SHIFT) |
+               ((long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT) |
+               ((long) bound << BOUND_SHIFT) |
+               ((long) age << AGE_SHIFT);
+    }
+
+    public static int getMove(final long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    public static int getScore(final long data) {
+        return (int) ((data >>> SCORE_SHIFT) & ((1 << SCORE_BITS) - 1)) - SCORE_OFFSET;
+    }
+
+    public static int getDepth(final long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static int getBound(final long data) {
+        return (int) ((data >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    private static int getAge(final long data) {
+        return (int) ((data >>> AGE_SHIFT) & AGE_MASK);
+    }
+
+    public int getSizeMB() {
+        return this.sizeMB;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getCollisions() {
+        return this.collisions.sum();
+    }
+
+    /**
+     * @return permille of the first 1000 entries used by the current search, same as UCI hashfull
+     */
+    public int getHashFull() {
+        final int sample = Math.min(1000, this.table.length / LONGS_PER_ENTRY);
+        int used = 0;
+        for (int i = 0; i < sample * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long data = this.table[i + 1];
+            if (data != NO_ENTRY && getAge(data) == this.age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    @Override
+    public String toString() {
+        final long probes = getHits() + getMisses();
+        return String.format("hash %d MB: %d hits, %d misses (%.1f%% hit rate), %d collisions, %d permille full",
+                this.sizeMB, getHits(), getMisses(), probes == 0 ? 0.0 : 100.0 * getHits() / probes,
+                getCollisions(), getHashFull());
+    }
+}
@@ -0,0 +1,308 @@
+package com.chess.engine.tuning;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Texel tuning of the piece square tables (material included) on labelled positions
+ * The evaluation of a position is linear in the table values, so the mean squared error between the game results
+ * and sigmoid(evaluation) has an exact gradient, the tuner walks down it with Adam steps
+ * Loss and gradient are summed over the positions by a fork-join pool, every core takes a slice of the PositionSet,
+ * the pool belongs to the tuner and is shut down by close()
+ * The positions should be quiet (no captures pending), the tables are tuned on the static evaluation
+ * Only the piece square tables are tuned, the pawn structure terms of TaperedEvaluator are left out
+ * Texel tuning: https://www.chessprogramming.org/Texel%27s_Tuning_Method
+ * Adam: https://arxiv.org/abs/1412.6980
+ *
+ * Usage: EvaluationTuner [-iterations n] [-rate r] [-threads n] [-out file] file...
+ *        loads every file (see PositionSet for the line format), fits the sigmoid scaling, tunes the tables and
+ *        writes them to the out file (default tuned-tables.txt) in the layout of PieceSquareTables, material
+ *        left as it is, so the arrays can be pasted over the current ones
+ */
+public final class EvaluationTuner implements AutoCloseable {
+
+    private static final int PARAMETERS = 2 * PositionSet.FEATURES;    // Middlegame tables, then endgame tables
+    private static final int SLICE_SIZE = 16384;        // Positions summed by one fork-join task
+    private static final double BETA1 = 0.9, BETA2 = 0.999, EPSILON = 1e-8;
+
+    private final PositionSet positions;
+    private final ForkJoinPool pool;
+    private final double[] parameters = new double[PARAMETERS];
+    private double scaling = 1.0;       // K of sigmoid(score) = 1 / (1 + 10^(-K * score / 400))
+
+    /**
+     * @param positions labelled positions
+     * @param threads threads summing the loss
+     */
+    public EvaluationTuner(final PositionSet positions,
+                           final int threads) {
+        if (positions.size() == 0) {
+            throw new RuntimeException("Tuning needs at least 1 position");
+        }
+        this.positions = positions;
+        this.pool = new ForkJoinPool(threads);
+        for (final PieceType pieceType : PieceType.values()) {
+            for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+                final int score = PieceSquareTables.getScore(Alliance.WHITE, pieceType, tile);
+                final int feature = pieceType.ordinal() * BoardUtils.NUM_TILES + tile;
+                this.parameters[feature] = PieceSquareTables.getMiddlegameScore(score);
+                this.parameters[PositionSet.FEATURES + feature] = PieceSquareTables.getEndgameScore(score);
+            }
+        }
+    }
+
+    /**
+     * Pick the sigmoid scaling that fits the current tables best (golden section search),
+     * so tuning moves the tables and not the scale of the scores
+     * @return scaling found
+     */
+    public double fitScaling() {
+        final double ratio = (Math.sqrt(5.0) - 1.0) / 2.0;
+        double low = 0.0, high = 3.0;
+        for (int i = 0; i < 40; i++) {
+            final double left = high - ratio * (high - low);
+            final double right = low + ratio * (high - low);
+            this.scaling = left;
+            final double leftLoss = loss();
+            this.scaling = right;
+            final double rightLoss = loss();
+            if (leftLoss < rightLoss) {
+                high = right;
+            } else {
+                low = left;
+            }
+        }
+        this.scaling = (low + high) / 2.0;
+        return this.scaling;
+    }
+
+    /**
+     * @return mean squared error of the current tables
+     */
+    public double loss() {
+        return this.pool.invoke(new LossTask(this, 0, this.positions.size(), false))[0] / this.positions.size();
+    }
+
+    /**
+     * Told about the loss of every tuning step
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param iteration step just taken, from 1
+         * @param loss mean squared error of the tables before the step
+         */
+        void iterationDone(int iteration, double loss);
+    }
+
+    /**
+     * Adam steps on the gradient of the loss
+     * @param iterations number of steps
+     * @param rate step size in centipawns
+     * @param progressListener told about every step, null if nobody listens
+     * @return mean squared error of the tuned tables
+     */
+    public double tune(final int iterations,
+                       final double rate,
+                       final ProgressListener progressListener) {
+        final double[] firstMoments = new double[PARAMETERS];
+        final double[] secondMoments = new double[PARAMETERS];
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            final double[] sums = this.pool.invoke(new LossTask(this, 0, this.positions.size(), true));
+            for (int i = 0; i < PARAMETERS; i++) {
+                final double gradient = sums[i + 1] / this.positions.size();
+                firstMoments[i] = BETA1 * firstMoments[i] + (1.0 - BETA1) * gradient;
+                secondMoments[i] = BETA2 * secondMoments[i] + (1.0 - BETA2) * gradient * gradient;
+                final double first = firstMoments[i] / (1.0 - Math.pow(BETA1, iteration));
+                final double second = secondMoments[i] / (1.0 - Math.pow(BETA2, iteration));
+                this.parameters[i] -= rate * first / (Math.sqrt(second) + EPSILON);
+            }
+            if (progressListener != null) {
+                progressListener.iterationDone(iteration, sums[0] / this.positions.size());
+            }
+        }
+        return loss();
+    }
+
+    /**
+     * Shut the fork-join pool down, the tuner cannot sum losses any more afterwards
+     */
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Write the tuned tables as the arrays of PieceSquareTables, material taken out of every value
+     * @param path file to write
+     */
+    public void writeTables(final Path path) {
+        try (final PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            for (final PieceType pieceType : PieceType.values()) {
+                final int[] material = PieceSquareTables.getMaterial(pieceType);
+                writeTable(writer, "MIDDLEGAME_" + pieceType.name(), pieceType, 0, material[0]);
+                writeTable(writer, "ENDGAME_" + pieceType.name(), pieceType, PositionSet.FEATURES, material[1]);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException("Cannot write tables to " + path, e);
+        }
+    }
+
+    private void writeTable(final PrintWriter writer,
+                            final String name,
+                            final PieceType pieceType,
+                            final int offset,
+                            final int material) {
+        writer.println("    private static final int[] " + name + " = {");
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final long value = Math.round(this.parameters[offset + pieceType.ordinal() * BoardUtils.NUM_TILES + tile]) -
+                    material;
+            writer.print((tile % BoardUtils.NUM_TILES_PER_ROW == 0 ? "            " : " ") + String.format("%3d", value));
+            writer.print(tile == BoardUtils.NUM_TILES - 1 ? "};\n\n" :
+                    tile % BoardUtils.NUM_TILES_PER_ROW == BoardUtils.NUM_TILES_PER_ROW - 1 ? ",\n" : ",");
+        }
+    }
+
+    /**
+     * @return evaluation of a position with the current tables, white's side
+     */
+    private double evaluate(final int position) {
+        double middlegame = 0.0, endgame = 0.0;
+        for (int i = this.positions.getStart(position); i < this.positions.getEnd(position); i++) {
+            final int piece = this.positions.getPiece(i);
+            if (piece < PositionSet.FEATURES) {
+                middlegame += this.parameters[piece];
+                endgame += this.parameters[PositionSet.FEATURES + piece];
+            } else {
+                middlegame -= this.parameters[piece - PositionSet.FEATURES];
+                endgame -= this.parameters[piece];
+            }
+        }
+        final int phase = this.positions.getPhase(position);
+        return (middlegame * phase + endgame * (PieceSquareTables.MAX_GAME_PHASE - phase)) / PieceSquareTables.MAX_GAME_PHASE;
+    }
+
+    private double sigmoid(final double score) {
+        return 1.0 / (1.0 + Math.pow(10.0, -this.scaling * score / 400.0));
+    }
+
+    /**
+     * Squared error summed over a slice of the positions, split in halves until a slice is small enough
+     * Result [0] is the error, [1 ..] the gradient of every parameter when asked for
+     */
+    private static final class LossTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EvaluationTuner tuner;
+        private final int from;
+        private final int to;
+        private final boolean gradient;
+
+        LossTask(final EvaluationTuner tuner,
+                 final int from,
+                 final int to,
+                 final boolean gradient) {
+            this.tuner = tuner;
+            this.from = from;
+            this.to = to;
+            this.gradient = gradient;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (this.to - this.from > SLICE_SIZE) {
+                final int middle = (this.from + this.to) >>> 1;
+                final LossTask left = new LossTask(this.tuner, this.from, middle, this.gradient);
+                left.fork();
+                final double[] sums = new LossTask(this.tuner, middle, this.to, this.gradient).compute();
+                final double[] leftSums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += leftSums[i];
+                }
+                return sums;
+            }
+            final PositionSet positions = this.tuner.positions;
+            final double[] sums = new double[this.gradient ? PARAMETERS + 1 : 1];
+            final double log10 = Math.log(10.0) / 400.0;
+            for (int position = this.from; position < this.to; position++) {
+                final double predicted = this.tuner.sigmoid(this.tuner.evaluate(position));
+                final double error = positions.getResult(position) - predicted;
+                sums[0] += error * error;
+                if (!this.gradient) {
+                    continue;
+                }
+                // d(error^2)/d(score), the score is linear in every table value of a piece on the board
+                final double scoreGradient = -2.0 * error * predicted * (1.0 - predicted) * this.tuner.scaling * log10;
+                final int phase = positions.getPhase(position);
+                final double middlegameGradient = scoreGradient * phase / PieceSquareTables.MAX_GAME_PHASE;
+                final double endgameGradient = scoreGradient - middlegameGradient;
+                for (int i = positions.getStart(position); i < positions.getEnd(position); i++) {
+                    final int piece = positions.getPiece(i);
+                    final int feature = piece < PositionSet.FEATURES ? piece : piece - PositionSet.FEATURES;
+                    final double sign = piece < PositionSet.FEATURES ? 1.0 : -1.0;
+                    sums[1 + feature] += sign * middlegameGradient;
+                    sums[1 + PositionSet.FEATURES + feature] += sign * endgameGradient;
+                }
+            }
+            return sums;
+        }
+    }
+
+    public static void main(final String[] args) {
+        int iterations = 500;
+        double rate = 1.0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = Paths.get("tuned-tables.txt");
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (args[argIndex].equals("-iterations")) {
+                iterations = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-rate")) {
+                rate = Double.parseDouble(args[++argIndex]);
+            } else if (args[argIndex].equals("-threads")) {
+                threads = Integer.parseInt(args[++argIndex]);
+            } else if (args[argIndex].equals("-out")) {
+                out = Paths.get(args[++argIndex]);
+            } else {
+                throw new RuntimeException("Unknown option " + args[argIndex]);
+            }
+            argIndex++;
+        }
+        if (argIndex == args.length) {
+            throw new RuntimeException("Usage: EvaluationTuner [-iterations n] [-rate r] [-threads n] [-out file] file...");
+        }
+        final PositionSet positions = new PositionSet();
+        final long loadStart = System.nanoTime();
+        while (argIndex < args.length) {
+            final Path path = Paths.get(args[argIndex++]);
+            System.out.println(path + ": " + positions.load(path) + " positions");
+        }
+        System.out.printf("%d positions loaded in %d ms%n", positions.size(), (System.nanoTime() - loadStart) / 1_000_000);
+
+        try (final EvaluationTuner tuner = new EvaluationTuner(positions, threads)) {
+            System.out.printf("scaling %.4f, loss %.6f, %d threads%n", tuner.fitScaling(), tuner.loss(), threads);
+            final long tuneStart = System.nanoTime();
+            final int lastIteration = iterations;
+            final double loss = tuner.tune(iterations, rate, (iteration, iterationLoss) -> {
+                if (iteration % 10 == 0 || iteration == lastIteration) {
+                    System.out.printf("iteration %5d loss %.6f%n", iteration, iterationLoss);
+                }
+            });
+            System.out.printf("%d iterations in %d ms, loss %.6f%n", iterations, (System.nanoTime() - tuneStart) / 1_000_000, loss);
+            tuner.writeTables(out);
+            System.out.println("tables written to " + out);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.chess.engine.tuning;
+
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Labelled positions for tuning, kept in a few flat arrays instead of Board objects
+ * A position is its pieces, one short each: piece type * 64 + tile seen from the piece's own side
+ * (a black piece reads its tile mirrored, tile ^ 56, like PieceSquareTables), + FEATURES for a black piece,
+ * so a position with 32 pieces takes about 70 bytes and millions of them fit in memory
+ * Lines are read straight from the FEN piece placement, no Board is built, side to move and the other FEN fields
+ * are not needed by the tables being tuned
+ * Accepted lines: a FEN or EPD followed by the game result from white's side in one of the usual forms
+ *   ... c9 "1-0";      ... [1-0]     ... [0.5]     ... 1/2-1/2     ... 0-1
+ * Empty lines and lines starting with # are skipped
+ */
+public final class PositionSet {
+
+    public static final int FEATURES = PieceType.values().length * BoardUtils.NUM_TILES;   // Per alliance
+
+    private short[] pieces = new short[1 << 16];
+    private int[] starts = new int[1 << 12];     // Pieces of position i are pieces[starts[i]] .. pieces[starts[i + 1] - 1]
+    private byte[] phases = new byte[1 << 12];
+    private float[] results = new float[1 << 12];
+    private int size;
+
+    /**
+     * Read every labelled position of a file
+     * @param path FEN or EPD file
+     * @return number of positions read
+     */
+    public int load(final Path path) {
+        int count = 0;
+        int lineNumber = 0;
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                add(line, path + ":" + lineNumber);
+                count++;
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException("Cannot read positions from " + path, e);
+        }
+        return count;
+    }
+
+    /**
+     * @param line FEN or EPD with the game result
+     */
+    public void add(final String line) {
+        add(line, line);
+    }
+
+    private void add(final String line,
+                     final String source) {
+        final float result = parseResult(line, source);
+        ensureCapacity(this.size + 1, this.starts[this.size] + BoardUtils.NUM_TILES);
+        int pieceIndex = this.starts[this.size];
+        int phase = 0;
+        int tile = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char fenChar = line.charAt(i);
+            if (Character.isWhitespace(fenChar)) {
+                break;
+            }
+            if (fenChar == '/') {
+                continue;
+            }
+            if (fenChar >= '1' && fenChar <= '8') {
+                tile += fenChar - '0';
+                continue;
+            }
+            if (tile >= BoardUtils.NUM_TILES) {
+                throw new RuntimeException("Invalid FEN placement at " + source);
+            }
+            final PieceType pieceType = pieceType(Character.toLowerCase(fenChar), source);
+            final boolean white = Character.isUpperCase(fenChar);
+            this.pieces[pieceIndex++] = (short) ((white ? 0 : FEATURES) + pieceType.ordinal() * BoardUtils.NUM_TILES +
+                    (white ? tile : tile ^ 56));
+            phase += PieceSquareTables.getPhase(pieceType);
+            tile++;
+        }
+        if (tile != BoardUtils.NUM_TILES) {
+            throw new RuntimeException("Invalid FEN placement at " + source);
+        }
+        this.phases[this.size] = (byte) Math.min(phase, PieceSquareTables.MAX_GAME_PHASE);
+        this.results[this.size] = result;
+        this.size++;
+        this.starts[this.size] = pieceIndex;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return index of the first piece of the position in getPiece()
+     */
+    public int getStart(final int position) {
+        return this.starts[position];
+    }
+
+    /**
+     * @return index after the last piece of the position
+     */
+    public int getEnd(final int position) {
+        return this.starts[position + 1];
+    }
+
+    /**
+     * @return piece type * 64 + tile from its own side, + FEATURES for a black piece
+     */
+    public int getPiece(final int index) {
+        return this.pieces[index];
+    }
+
+    /**
+     * @return game phase of the position, capped at PieceSquareTables.MAX_GAME_PHASE
+     */
+    public int getPhase(final int position) {
+        return this.phases[position];
+    }
+
+    /**
+     * @return game result from white's side: 1 win, 0.5 draw, 0 loss
+     */
+    public float getResult(final int position) {
+        return this.results[position];
+    }
+
+    private void ensureCapacity(final int positions,
+                                final int pieces) {
+        if (positions + 1 > this.starts.length) {
+            final int length = Math.max(this.starts.length * 2, positions + 1);
+            this.starts = Arrays.copyOf(this.starts, length);
+            this.phases = Arrays.copyOf(this.phases, length);
+            this.results = Arrays.copyOf(this.results, length);
+        }
+        if (pieces > this.pieces.length) {
+            this.pieces = Arrays.copyOf(this.pieces, Math.max(this.pieces.length * 2, pieces));
+        }
+    }
+
+    private static PieceType pieceType(final char fenChar,
+                                       final String source) {
+        switch (fenChar) {
+            case 'p': return PieceType.PAWN;
+            case 'n': return PieceType.KNIGHT;
+            case 'b': return PieceType.BISHOP;
+            case 'r': return PieceType.ROOK;
+            case 'q': return PieceType.QUEEN;
+            case 'k': return PieceType.KING;
+            default: throw new RuntimeException("Invalid FEN piece " + fenChar + " at " + source);
+        }
+    }
+
+    private static float parseResult(final String line,
+                                     final String source) {
+        final int placementEnd = line.indexOf(' ');
+        final String rest = placementEnd < 0 ? "" : line.substring(placementEnd);
+        if (rest.contains("1/2-1/2")) {
+            return 0.5f;
+        }
+        if (rest.contains("1-0")) {
+            return 1.0f;
+        }
+        if (rest.contains("0-1")) {
+            return 0.0f;
+        }
+        final int open = rest.lastIndexOf('[');
+        final int close = rest.lastIndexOf(']');
+        if (open >= 0 && close > open) {
+            try {
+                final float result = Float.parseFloat(rest.substring(open + 1, close).trim());
+                if (result >= 0.0f && result <= 1.0f) {
+                    return result;
+                }
+            } catch (final NumberFormatException e) {
+                // Falls through to the error below
+            }
+        }
+        throw new RuntimeException("No game result at " + source);
+    }
+}
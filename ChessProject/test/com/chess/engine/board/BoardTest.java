@@ -0,0 +1,68 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoardTest {
+
+    @Test
+    void movedBoardsMatchBoardsBuiltFromScratch() {
+        final Random random = new Random(7L);
+        for (final String fen : ZobristTest.START_POSITIONS) {
+            Board board = FenUtilities.createGameFromFEN(fen);
+            for (int ply = 0; ply < 60; ply++) {
+                final List<Move> legalMoves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                // Move.execute copies the parent's piece array and bitboard, rebuilding sets every piece one by one
+                board = board.getCurrentPlayer().makeMove(legalMoves.get(random.nextInt(legalMoves.size()))).getToBoard();
+                final Board.Builder builder = new Board.Builder();
+                for (final Piece piece : board.getWhitePieces()) {
+                    builder.setPiece(piece);
+                }
+                for (final Piece piece : board.getBlackPieces()) {
+                    builder.setPiece(piece);
+                }
+                builder.setMoveMaker(board.getCurrentPlayer().getAlliance());
+                builder.setEnPassantPawn(board.getEnPassantPawn());
+                builder.setCastlingRights(board.getCastlingRights());
+                final Board rebuiltBoard = builder.build();
+                for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+                    assertEquals(rebuiltBoard.getPiece(coordinate), board.getPiece(coordinate));
+                }
+                assertEquals(rebuiltBoard, board, FenUtilities.createFENFromGame(board));
+            }
+        }
+    }
+
+    @Test
+    void builderCanBeUsedAgainAfterBuild() {
+        final Board standardBoard = Board.createStandardBoard();
+        final Board.Builder builder = new Board.Builder(standardBoard);
+        builder.setMoveMaker(Alliance.WHITE);
+        final Board firstBoard = builder.build();
+        final Piece knight = firstBoard.getPiece(62);
+        builder.removePiece(knight);
+        builder.setPiece(knight.makeMovePiece(new Move.MajorMove(firstBoard, knight, 45)));
+        final Board secondBoard = builder.build();
+
+        assertEquals(standardBoard, firstBoard);
+        assertEquals(knight, firstBoard.getPiece(62));
+        assertNull(firstBoard.getPiece(45));
+        assertEquals(Zobrist.calculateKey(firstBoard), firstBoard.getZobristKey());
+        assertNull(secondBoard.getPiece(62));
+        assertEquals(Piece.PieceType.KNIGHT, secondBoard.getPiece(45).getPieceType());
+        assertEquals(Zobrist.calculateKey(secondBoard), secondBoard.getZobristKey());
+        assertNotEquals(firstBoard, secondBoard);
+    }
+}
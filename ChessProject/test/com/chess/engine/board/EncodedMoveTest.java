@@ -0,0 +1,74 @@
+package com.chess.engine.board;
+
+import com.chess.engine.player.MoveTransition;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encoded moves against Move objects over the move trees of the ZobristTest start positions
+ */
+class EncodedMoveTest {
+
+    private static final int DEPTH = 3;
+
+    @Test
+    void movesSurviveTheRoundTrip() {
+        for (final String fen : ZobristTest.START_POSITIONS) {
+            walk(FenUtilities.createGameFromFEN(fen), null, DEPTH);
+        }
+    }
+
+    @Test
+    void generatorMatchesLegalMoves() {
+        for (final String fen : ZobristTest.START_POSITIONS) {
+            final Board board = FenUtilities.createGameFromFEN(fen);
+            walk(board, new MutableBoard(board), DEPTH);
+        }
+    }
+
+    /**
+     * Check every node whose moves lead down to depth, the mutable board (if any) follows the walk with encoded moves
+     */
+    private static void walk(final Board board,
+                             final MutableBoard mutableBoard,
+                             final int depth) {
+        if (depth == 0) {
+            return;
+        }
+        final Set<Integer> expectedMoves = new HashSet<>();
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final int encodedMove = EncodedMove.fromMove(move);
+            expectedMoves.add(encodedMove);
+            if (mutableBoard == null) {
+                final Move decodedMove = EncodedMove.toMove(board, encodedMove);
+                assertEquals(move, decodedMove, () -> EncodedMove.toString(encodedMove) + " in " + FenUtilities.createFENFromGame(board));
+                assertEquals(move.getClass(), decodedMove.getClass(), () -> EncodedMove.toString(encodedMove));
+                assertEquals(encodedMove, EncodedMove.fromMove(decodedMove));
+            }
+        }
+        if (mutableBoard != null) {
+            final MoveList moveList = new MoveList();
+            mutableBoard.generateLegalMoves(moveList);
+            final Set<Integer> generatedMoves = new HashSet<>();
+            for (int i = 0; i < moveList.size(); i++) {
+                assertTrue(generatedMoves.add(moveList.get(i)), () -> "Duplicate move in " + FenUtilities.createFENFromGame(board));
+            }
+            assertEquals(expectedMoves, generatedMoves, () -> FenUtilities.createFENFromGame(board));
+        }
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (mutableBoard != null) {
+                mutableBoard.makeMove(EncodedMove.fromMove(move));
+            }
+            walk(transition.getToBoard(), mutableBoard, depth - 1);
+            if (mutableBoard != null) {
+                mutableBoard.unmakeMove();
+            }
+        }
+    }
+}
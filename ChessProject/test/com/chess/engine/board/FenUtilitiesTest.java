@@ -0,0 +1,26 @@
+package com.chess.engine.board;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FenUtilitiesTest {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void standardBoardHasTheSamePiecesAsTheStartFen() {
+        final Board standardBoard = Board.createStandardBoard();
+        final Board fenBoard = FenUtilities.createGameFromFEN(START_FEN);
+        // Piece.equals compares the first move flags as well
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            assertEquals(fenBoard.getPiece(coordinate), standardBoard.getPiece(coordinate), BoardUtils.getPositionAtCoordinate(coordinate));
+        }
+        assertEquals(fenBoard, standardBoard);
+        assertEquals(new HashSet<>(fenBoard.getCurrentPlayer().getLegalMoves()),
+                new HashSet<>(standardBoard.getCurrentPlayer().getLegalMoves()));
+        assertEquals(START_FEN, FenUtilities.createFENFromGame(standardBoard));
+    }
+}
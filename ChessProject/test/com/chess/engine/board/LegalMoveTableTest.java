@@ -0,0 +1,76 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Table lookups against a scan of the legal move list, over random games
+ */
+class LegalMoveTableTest {
+
+    @Test
+    void lookupsMatchTheLegalMoveList() {
+        final Random random = new Random(11L);
+        for (final String fen : ZobristTest.START_POSITIONS) {
+            Board board = FenUtilities.createGameFromFEN(fen);
+            for (int ply = 0; ply < 60; ply++) {
+                final Collection<Move> legalMoves = board.getCurrentPlayer().getLegalMoves();
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                checkTable(board, legalMoves);
+                final List<Move> moves = new ArrayList<>(legalMoves);
+                board = board.getCurrentPlayer().makeMove(moves.get(random.nextInt(moves.size()))).getToBoard();
+            }
+        }
+    }
+
+    private static void checkTable(final Board board,
+                                   final Collection<Move> legalMoves) {
+        final LegalMoveTable table = new LegalMoveTable(legalMoves);
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                final Move expectedMove = scan(legalMoves, from, to);
+                final Move move = table.getMove(from, to);
+                assertSame(expectedMove, move, () -> FenUtilities.createFENFromGame(board));
+                if (move instanceof Move.PawnPromotion) {
+                    assertEquals(Piece.PieceType.QUEEN, ((Move.PawnPromotion) move).getPromotedPiece().getPieceType());
+                }
+                final Piece piece = board.getPiece(from);
+                if (piece != null && piece.getPieceAlliance() == board.getCurrentPlayer().getAlliance()) {
+                    assertSame(expectedMove == null ? Move.MoveFactory.getNullMove() : expectedMove,
+                            Move.MoveFactory.createMove(board, from, to));
+                }
+            }
+        }
+        for (final Move move : legalMoves) {
+            assertTrue(table.contains(move), move.toString());
+        }
+        // Moves of the other side are never legal for the side to move
+        for (final Move move : board.getCurrentPlayer().getOpponent().getLegalMoves()) {
+            assertFalse(table.contains(move), move.toString());
+        }
+        assertFalse(table.contains(Move.MoveFactory.getNullMove()));
+    }
+
+    private static Move scan(final Collection<Move> legalMoves,
+                             final int from,
+                             final int to) {
+        for (final Move move : legalMoves) {
+            if (move.getCurrentCoordinate() == from && move.getDestinationCoordinate() == to) {
+                return move;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Packed scores: the borrow of a negative middlegame score, and the incremental score and phase of BitBoard
+ * against a sum over the pieces
+ */
+class PieceSquareTablesTest {
+
+    @Test
+    void packedScoresUnpackToTheirHalves() {
+        for (int middlegameScore = -5000; middlegameScore <= 5000; middlegameScore += 37) {
+            for (int endgameScore = -5000; endgameScore <= 5000; endgameScore += 41) {
+                final int packedScore = PieceSquareTables.pack(middlegameScore, endgameScore);
+                assertEquals(middlegameScore, PieceSquareTables.getMiddlegameScore(packedScore));
+                assertEquals(endgameScore, PieceSquareTables.getEndgameScore(packedScore));
+                assertEquals(-middlegameScore, PieceSquareTables.getMiddlegameScore(-packedScore));
+                assertEquals(-endgameScore, PieceSquareTables.getEndgameScore(-packedScore));
+            }
+        }
+    }
+
+    @Test
+    void sumsOfPackedScoresUnpackToSumsOfHalves() {
+        final Random random = new Random(3L);
+        for (int i = 0; i < 100_000; i++) {
+            final int firstMiddlegame = random.nextInt(4001) - 2000;
+            final int firstEndgame = random.nextInt(4001) - 2000;
+            final int secondMiddlegame = random.nextInt(4001) - 2000;
+            final int secondEndgame = random.nextInt(4001) - 2000;
+            final int sum = PieceSquareTables.pack(firstMiddlegame, firstEndgame) + PieceSquareTables.pack(secondMiddlegame, secondEndgame);
+            final int difference = PieceSquareTables.pack(firstMiddlegame, firstEndgame) - PieceSquareTables.pack(secondMiddlegame, secondEndgame);
+            assertEquals(firstMiddlegame + secondMiddlegame, PieceSquareTables.getMiddlegameScore(sum));
+            assertEquals(firstEndgame + secondEndgame, PieceSquareTables.getEndgameScore(sum));
+            assertEquals(firstMiddlegame - secondMiddlegame, PieceSquareTables.getMiddlegameScore(difference));
+            assertEquals(firstEndgame - secondEndgame, PieceSquareTables.getEndgameScore(difference));
+        }
+    }
+
+    @Test
+    void incrementalScoreMatchesSumOverPieces() {
+        final Random random = new Random(5L);
+        for (final String fen : ZobristTest.START_POSITIONS) {
+            Board board = FenUtilities.createGameFromFEN(fen);
+            final MutableBoard mutableBoard = new MutableBoard(board);
+            checkScore(board.getBitBoard());
+            for (int ply = 0; ply < 120; ply++) {
+                final List<Move> legalMoves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                final Move move = legalMoves.get(random.nextInt(legalMoves.size()));
+                board = board.getCurrentPlayer().makeMove(move).getToBoard();
+                mutableBoard.makeMove(EncodedMove.fromMove(move));
+                checkScore(board.getBitBoard());
+                checkScore(mutableBoard.getBitBoard());
+            }
+            while (mutableBoard.getPly() > 0) {
+                mutableBoard.unmakeMove();
+                checkScore(mutableBoard.getBitBoard());
+            }
+        }
+    }
+
+    /**
+     * Halves are summed one piece at a time, so a packed sum that lost a borrow shows up against them
+     */
+    private static void checkScore(final BitBoard bitBoard) {
+        int middlegameScore = 0;
+        int endgameScore = 0;
+        int gamePhase = 0;
+        for (int coordinate = 0; coordinate < BoardUtils.NUM_TILES; coordinate++) {
+            final Piece.PieceType pieceType = bitBoard.getPieceTypeAt(coordinate);
+            if (pieceType == null) {
+                continue;
+            }
+            final Alliance alliance = bitBoard.getAllianceAt(coordinate);
+            final int pieceScore = PieceSquareTables.getScore(alliance, pieceType, coordinate);
+            middlegameScore += PieceSquareTables.getMiddlegameScore(pieceScore);
+            endgameScore += PieceSquareTables.getEndgameScore(pieceScore);
+            gamePhase += PieceSquareTables.getPhase(pieceType);
+        }
+        assertEquals(middlegameScore, PieceSquareTables.getMiddlegameScore(bitBoard.getPackedScore()));
+        assertEquals(endgameScore, PieceSquareTables.getEndgameScore(bitBoard.getPackedScore()));
+        assertEquals(gamePhase, bitBoard.getGamePhase());
+    }
+}
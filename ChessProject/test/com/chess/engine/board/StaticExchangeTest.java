@@ -0,0 +1,38 @@
+package com.chess.engine.board;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StaticExchangeTest {
+
+    @ParameterizedTest(name = "{3}: {1}{2} = {4}")
+    @CsvSource(delimiter = '|', value = {
+            "4k3/8/8/4p3/8/8/8/4R1K1 w - - 0 1         | e1 | e5 |  100 | undefended pawn",
+            "4k3/8/3p4/4p3/8/8/8/4R1K1 w - - 0 1       | e1 | e5 | -400 | pawn defended by a pawn",
+            "4k3/4r3/8/4p3/8/8/8/4R1K1 w - - 0 1       | e1 | e5 | -400 | pawn defended by a rook",
+            "4k3/4r3/8/4p3/8/8/4R3/4R1K1 w - - 0 1     | e2 | e5 |  100 | rook x-ray behind the capturing rook",
+            "4k3/4q3/4r3/4p3/8/8/4R3/4R1K1 w - - 0 1   | e2 | e5 | -400 | x-rays on both sides",
+            "4k3/8/8/3p4/8/2N5/8/4K3 w - - 0 1         | c3 | e4 | -320 | quiet move to a tile a pawn attacks",
+            "4k3/8/8/8/3p4/4P3/8/4K3 b - - 0 1         | d4 | e3 |  100 | black captures",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1         | e5 | d6 |  100 | en passant",
+            "4k3/2p5/8/3pP3/8/8/8/4K3 w - d6 0 1       | e5 | d6 |    0 | en passant onto a defended tile",
+            "3rk3/8/8/3pP3/8/8/8/3RK3 w - d6 0 1       | e5 | d6 |  100 | en passant uncovers the rook behind the pawn",
+            "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1           | b7 | b8 |  800 | promotion",
+            "2r1k3/1P6/8/8/8/8/8/4K3 w - - 0 1         | b7 | b8 | -100 | promotion onto a defended tile",
+            "r3k3/1P6/8/8/8/8/8/4K3 w - - 0 1          | b7 | a8 | 1300 | capture with promotion",
+            "8/8/4k3/3p4/8/8/3R4/4K3 w - - 0 1         | d2 | d5 | -400 | king recaptures an undefended tile",
+            "8/8/4k3/3p4/8/8/3R4/3RK3 w - - 0 1        | d2 | d5 |  100 | king does not recapture on a defended tile",
+            "4k3/8/8/8/8/8/3p4/4K3 w - - 0 1           | e1 | d2 |  100 | king captures an undefended pawn"
+    })
+    void exchangeScores(final String fen,
+                        final String from,
+                        final String to,
+                        final int expectedScore,
+                        final String description) {
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        assertEquals(expectedScore, StaticExchange.evaluate(board, BoardUtils.getCoordinateAtPosition(from),
+                BoardUtils.getCoordinateAtPosition(to)), description);
+    }
+}
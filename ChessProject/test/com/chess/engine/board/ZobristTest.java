@@ -0,0 +1,82 @@
+package com.chess.engine.board;
+
+import com.chess.engine.player.MoveTransition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Incremental Zobrist keys of Board and MutableBoard against a key hashed from scratch, over random games
+ * The start positions have castles, en passant and promotions close by, so every Move class gets played
+ */
+class ZobristTest {
+
+    static final String[] START_POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r3k2r/1P4P1/8/2pP4/8/8/1p4p1/R3K2R w KQkq c6 0 1"
+    };
+
+    private static final int GAMES_PER_POSITION = 40;
+    private static final int MAX_PLIES = 80;
+
+    @Test
+    void incrementalKeysMatchCalculatedKeys() {
+        final Random random = new Random(20240611L);
+        final Set<Class<?>> playedMoveClasses = new HashSet<>();
+        for (final String fen : START_POSITIONS) {
+            for (int game = 0; game < GAMES_PER_POSITION; game++) {
+                playRandomGame(FenUtilities.createGameFromFEN(fen), random, playedMoveClasses);
+            }
+        }
+        for (final Class<?> moveClass : Move.class.getDeclaredClasses()) {
+            if (!java.lang.reflect.Modifier.isAbstract(moveClass.getModifiers()) && Move.class.isAssignableFrom(moveClass) &&
+                    moveClass != Move.NullMove.class && moveClass != Move.AttackMove.class && moveClass != Move.CastleMove.class) {
+                assertTrue(playedMoveClasses.contains(moveClass), moveClass.getSimpleName() + " was never played");
+            }
+        }
+    }
+
+    private static void playRandomGame(final Board startBoard,
+                                       final Random random,
+                                       final Set<Class<?>> playedMoveClasses) {
+        final MutableBoard mutableBoard = new MutableBoard(startBoard);
+        Board board = startBoard;
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            final List<Move> legalMoves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+            if (legalMoves.isEmpty()) {
+                break;
+            }
+            final Move move = legalMoves.get(random.nextInt(legalMoves.size()));
+            playedMoveClasses.add(move.getClass());
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            assertTrue(transition.getMoveStatus().isDone(), move + " is not legal");
+            // Both MutableBoard overloads get played, the key has to be the same whichever way the move went
+            if (ply % 2 == 0) {
+                mutableBoard.makeMove(move);
+            } else {
+                mutableBoard.makeMove(EncodedMove.fromMove(move));
+            }
+            board = transition.getToBoard();
+
+            final long expectedKey = Zobrist.calculateKey(board);
+            assertEquals(expectedKey, board.getZobristKey(), () -> "Board key after " + move + " in " + FenUtilities.createFENFromGame(transition.getFromBoard()));
+            assertEquals(expectedKey, mutableBoard.getZobristKey(), () -> "MutableBoard key after " + move + " in " + FenUtilities.createFENFromGame(transition.getFromBoard()));
+        }
+        while (mutableBoard.getPly() > 0) {
+            mutableBoard.unmakeMove();
+        }
+        assertEquals(startBoard.getZobristKey(), mutableBoard.getZobristKey(), "MutableBoard key after unmaking the game");
+        assertEquals(startBoard.getZobristKey(), Zobrist.calculateKey(mutableBoard.toBoard()), "Board of the unmade game");
+    }
+}
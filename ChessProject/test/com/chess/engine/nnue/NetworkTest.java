@@ -0,0 +1,77 @@
+package com.chess.engine.nnue;
+
+import com.chess.engine.Alliance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Network files and the bound on the output weights that keeps the int dot product exact
+ */
+class NetworkTest {
+
+    private static final int MAGIC = 0x4E4E5545;
+    private static final int HIDDEN_SIZE = 288;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void saveAndLoadKeepTheWeights() {
+        final Network network = Network.random(64, 5L);
+        final Path path = this.directory.resolve("random.nnue");
+        network.save(path);
+        final Network loaded = Network.load(path);
+        assertEquals(network.getHiddenSize(), loaded.getHiddenSize());
+        for (final Alliance sideToMove : Alliance.values()) {
+            assertEquals(network.evaluate(new Accumulator(network), sideToMove),
+                    loaded.evaluate(new Accumulator(loaded), sideToMove));
+        }
+    }
+
+    @Test
+    void outputWeightsAtTheBoundScoreExactly() throws IOException {
+        // Every neuron clipped at QA: 255 * 32767 * 257 = 2,147,385,345 per half, just under Integer.MAX_VALUE
+        final Network network = Network.load(write(257));
+        assertEquals(2L * 2_147_385_345 * Network.SCALE / (Network.QA * Network.QB),
+                network.evaluate(new Accumulator(network), Alliance.WHITE));
+    }
+
+    @Test
+    void outputWeightsPastTheBoundAreRejected() throws IOException {
+        // 255 * 32767 * 258 does not fit in an int
+        final Path path = write(258);
+        assertThrows(RuntimeException.class, () -> Network.load(path));
+    }
+
+    /**
+     * @param count output weights of each half at Short.MAX_VALUE, the rest are 0
+     * @return network file with no feature weights and every feature bias at QA
+     */
+    private Path write(final int count) throws IOException {
+        final Path path = this.directory.resolve("bound.nnue");
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(HIDDEN_SIZE);
+            for (int i = 0; i < Network.INPUTS * HIDDEN_SIZE; i++) {
+                output.writeShort(0);
+            }
+            for (int i = 0; i < HIDDEN_SIZE; i++) {
+                output.writeShort(Network.QA);
+            }
+            for (int i = 0; i < 2 * HIDDEN_SIZE; i++) {
+                output.writeShort(i % HIDDEN_SIZE < count ? Short.MAX_VALUE : 0);
+            }
+            output.writeInt(0);
+        }
+        return path;
+    }
+}
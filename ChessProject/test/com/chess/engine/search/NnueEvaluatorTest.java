@@ -0,0 +1,74 @@
+package com.chess.engine.search;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.FenUtilities;
+import com.chess.engine.board.Move;
+import com.chess.engine.nnue.Accumulator;
+import com.chess.engine.nnue.Network;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Scores of the per ply accumulator stack against the network evaluated from scratch
+ */
+class NnueEvaluatorTest {
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+
+    private final Network network = Network.random(64, 3L);
+    private final NnueEvaluator evaluator = new NnueEvaluator(this.network);
+
+    @Test
+    void searchOrderMatchesFromScratch() {
+        // Positions one after the other, each tree visited depth first like a search, the stack moving between them
+        for (final String fen : POSITIONS) {
+            walk(FenUtilities.createGameFromFEN(fen), 0, 3);
+        }
+    }
+
+    @Test
+    void gameOrderMatchesFromScratch() {
+        final Random random = new Random(9L);
+        for (int game = 0; game < 10; game++) {
+            Board board = Board.createStandardBoard();
+            for (int ply = 0; ply < 100; ply++) {
+                final Board position = board;
+                assertEquals(fromScratch(position), this.evaluator.evaluate(position), () -> FenUtilities.createFENFromGame(position));
+                final List<Move> legalMoves = new ArrayList<>(board.getCurrentPlayer().getLegalMoves());
+                if (legalMoves.isEmpty()) {
+                    break;
+                }
+                board = board.getCurrentPlayer().makeLegalMove(legalMoves.get(random.nextInt(legalMoves.size()))).getToBoard();
+            }
+        }
+    }
+
+    private void walk(final Board board,
+                      final int ply,
+                      final int depth) {
+        assertEquals(fromScratch(board), this.evaluator.evaluate(board, ply), () -> FenUtilities.createFENFromGame(board));
+        if (depth == 0) {
+            return;
+        }
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            walk(board.getCurrentPlayer().makeLegalMove(move).getToBoard(), ply + 1, depth - 1);
+        }
+    }
+
+    private int fromScratch(final Board board) {
+        final Alliance sideToMove = board.getCurrentPlayer().getAlliance();
+        final int score = this.network.evaluate(new Accumulator(this.network, board.getBitBoard()), sideToMove);
+        return sideToMove.isWhite() ? score : -score;
+    }
+}